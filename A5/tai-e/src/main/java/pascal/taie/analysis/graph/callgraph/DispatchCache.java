@@ -0,0 +1,127 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import pascal.taie.ir.proginfo.MethodRef;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.Type;
+import pascal.taie.util.collection.Maps;
+
+import javax.annotation.Nullable;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+
+/**
+ * Memoizes the callees of virtual calls resolved for
+ * (receiver type, method reference) pairs, so that the dispatch
+ * of each pair is performed only once.
+ * This class is thread-safe, and a cache hit requires no locking.
+ */
+public class DispatchCache {
+
+    /**
+     * Resolves the callee for a cache miss.
+     */
+    private final BiFunction<Type, Invoke, JMethod> resolver;
+
+    /**
+     * Map from receiver type to method reference to resolved callee.
+     * Empty optional represents that the dispatch fails.
+     */
+    private final Map<Type, Map<MethodRef, Optional<JMethod>>> callees =
+            Maps.newConcurrentMap();
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    public DispatchCache() {
+        this(CallGraphs::resolveCallee);
+    }
+
+    /**
+     * @param resolver the function which resolves the callee for
+     *                 the given receiver type and call site on cache misses.
+     */
+    public DispatchCache(BiFunction<Type, Invoke, JMethod> resolver) {
+        this.resolver = resolver;
+    }
+
+    /**
+     * Resolves the callee of a call site with the receiver type.
+     * Only virtual and interface calls are cached, and the other calls
+     * are resolved by the resolver directly.
+     *
+     * @param type     type of the receiver object. If the callSite
+     *                 is static, this parameter is ignored (i.e., can be null).
+     * @param callSite the call site to be resolved.
+     * @return the resolved callee, or null if the callee cannot be resolved.
+     */
+    @Nullable
+    public JMethod resolveCallee(@Nullable Type type, Invoke callSite) {
+        if (type == null || !(callSite.isVirtual() || callSite.isInterface())) {
+            return resolver.apply(type, callSite);
+        }
+        Map<MethodRef, Optional<JMethod>> typeCallees = callees.get(type);
+        if (typeCallees == null) {
+            typeCallees = callees.computeIfAbsent(type, t -> Maps.newConcurrentMap());
+        }
+        MethodRef methodRef = callSite.getMethodRef();
+        Optional<JMethod> callee = typeCallees.get(methodRef);
+        if (callee != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+            callee = Optional.ofNullable(resolver.apply(type, callSite));
+            typeCallees.putIfAbsent(methodRef, callee);
+        }
+        return callee.orElse(null);
+    }
+
+    /**
+     * @return number of lookups answered by the cache.
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return number of lookups which required dispatch.
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return ratio of lookups answered by the cache, or 0 if no lookups
+     * have been performed.
+     */
+    public double getHitRate() {
+        long h = getHits();
+        long total = h + getMisses();
+        return total == 0 ? 0 : (double) h / total;
+    }
+}
@@ -25,6 +25,7 @@ package pascal.taie.analysis.pta.ci;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.graph.callgraph.DispatchCache;
 import pascal.taie.analysis.pta.PointerAnalysisResult;
 import pascal.taie.analysis.pta.core.heap.Obj;
 import pascal.taie.ir.exp.Var;
@@ -56,10 +57,14 @@ class CIPTAResult implements PointerAnalysisResult {
 
     private Set<Obj> objects;
 
+    private final DispatchCache dispatchCache;
+
     CIPTAResult(PointerFlowGraph pointerFlowGraph,
-                CallGraph<Invoke, JMethod> callGraph) {
+                CallGraph<Invoke, JMethod> callGraph,
+                DispatchCache dispatchCache) {
         this.pointerFlowGraph = pointerFlowGraph;
         this.callGraph = callGraph;
+        this.dispatchCache = dispatchCache;
     }
 
     @Override
@@ -123,4 +128,8 @@ class CIPTAResult implements PointerAnalysisResult {
     PointerFlowGraph getPointerFlowGraph() {
         return pointerFlowGraph;
     }
+
+    DispatchCache getDispatchCache() {
+        return dispatchCache;
+    }
 }
@@ -24,6 +24,7 @@ package pascal.taie.analysis.pta.ci;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import pascal.taie.analysis.graph.callgraph.DispatchCache;
 import pascal.taie.config.AnalysisOptions;
 import pascal.taie.util.AnalysisException;
 import pascal.taie.util.collection.Streams;
@@ -97,10 +98,14 @@ class ResultProcessor {
         logger.info(String.format("%-30s%s", "#array indexes points-to:", format(aptSize)));
         logger.info(String.format("%-30s%s", "#reachable methods:", format(reachable)));
         logger.info(String.format("%-30s%s", "#call graph edges:", format(callEdges)));
+        DispatchCache dispatchCache = result.getDispatchCache();
+        logger.info(String.format("%-30s%s hits / %s misses (%.2f%%)",
+                "#dispatch cache:", format(dispatchCache.getHits()),
+                format(dispatchCache.getMisses()), dispatchCache.getHitRate() * 100));
         logger.info("----------------------------------------");
     }
 
-    private static String format(int i) {
+    private static String format(long i) {
         return formatter.format(i);
     }
 
@@ -28,9 +28,12 @@ import pascal.taie.World;
 import pascal.taie.analysis.graph.callgraph.CallGraphs;
 import pascal.taie.analysis.graph.callgraph.CallKind;
 import pascal.taie.analysis.graph.callgraph.DefaultCallGraph;
+import pascal.taie.analysis.graph.callgraph.DispatchCache;
 import pascal.taie.analysis.graph.callgraph.Edge;
+import pascal.taie.analysis.pta.SolverMonitor;
 import pascal.taie.analysis.pta.core.heap.HeapModel;
 import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.config.AnalysisOptions;
 import pascal.taie.ir.exp.Var;
 import pascal.taie.ir.stmt.*;
 import pascal.taie.language.classes.ClassHierarchy;
@@ -46,6 +49,8 @@ class Solver {
 
     private final HeapModel heapModel;
 
+    private final AnalysisOptions options;
+
     private DefaultCallGraph callGraph;
 
     private PointerFlowGraph pointerFlowGraph;
@@ -56,8 +61,16 @@ class Solver {
 
     private ClassHierarchy hierarchy;
 
-    Solver(HeapModel heapModel) {
+    private DispatchCache dispatchCache;
+
+    /**
+     * Monitor of the progress of this solver, or null if monitoring is disabled.
+     */
+    private SolverMonitor monitor;
+
+    Solver(HeapModel heapModel, AnalysisOptions options) {
         this.heapModel = heapModel;
+        this.options = options;
     }
 
     /**
@@ -65,7 +78,16 @@ class Solver {
      */
     void solve() {
         initialize();
-        analyze();
+        if (monitor != null) {
+            monitor.start();
+        }
+        try {
+            analyze();
+        } finally {
+            if (monitor != null) {
+                monitor.stop();
+            }
+        }
     }
 
     /**
@@ -77,6 +99,10 @@ class Solver {
         callGraph = new DefaultCallGraph();
         stmtProcessor = new StmtProcessor();
         hierarchy = World.get().getClassHierarchy();
+        dispatchCache = new DispatchCache();
+        // context-insensitive analysis has only one (empty) context
+        monitor = SolverMonitor.make(options, "cipta", workList::size,
+                callGraph::getNumberOfMethods, () -> 1);
         // initialize main method
         JMethod main = World.get().getMainMethod();
         callGraph.addEntryMethod(main);
@@ -174,6 +200,9 @@ class Solver {
         // TODO - finish me
         if (!pointerFlowGraph.getSuccsOf(source).contains(target)) {
             pointerFlowGraph.addEdge(source, target);
+            if (monitor != null) {
+                monitor.onPFGEdgeAdded();
+            }
             PointsToSet pts = source.getPointsToSet();
             if (!pts.isEmpty()) {
                 workList.addEntry(target, pts);
@@ -192,7 +221,15 @@ class Solver {
             Pointer pointer = entry.pointer();
             PointsToSet pts = entry.pointsToSet();
             // △ = pts - pt(n)
-            PointsToSet delta = propagate(pointer, pts);
+            PointsToSet delta;
+            if (monitor != null) {
+                monitor.onEntryProcessed();
+                long start = System.nanoTime();
+                delta = propagate(pointer, pts);
+                monitor.onPropagated(delta.size(), System.nanoTime() - start);
+            } else {
+                delta = propagate(pointer, pts);
+            }
             if (pointer instanceof VarPtr ptr) {
                 Var var = ptr.getVar();
                 delta.forEach(obj -> {
@@ -225,7 +262,13 @@ class Solver {
                         );
                     });
                     // ProcessCall
-                    processCall(var, obj);
+                    if (monitor != null) {
+                        long start = System.nanoTime();
+                        processCall(var, obj);
+                        monitor.onCallProcessed(System.nanoTime() - start);
+                    } else {
+                        processCall(var, obj);
+                    }
                 });
             }
         }
@@ -311,10 +354,10 @@ class Solver {
      */
     private JMethod resolveCallee(Obj recv, Invoke callSite) {
         Type type = recv != null ? recv.getType() : null;
-        return CallGraphs.resolveCallee(type, callSite);
+        return dispatchCache.resolveCallee(type, callSite);
     }
 
     CIPTAResult getResult() {
-        return new CIPTAResult(pointerFlowGraph, callGraph);
+        return new CIPTAResult(pointerFlowGraph, callGraph, dispatchCache);
     }
 }
@@ -0,0 +1,105 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import pascal.taie.World;
+import pascal.taie.ir.proginfo.MethodRef;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Set;
+
+/**
+ * Builds call graph via class hierarchy analysis (CHA), which is cheap
+ * but imprecise, e.g., for the analyses that do not need
+ * a whole-program pointer analysis.
+ */
+public class CHABuilder implements CGBuilder<Invoke, JMethod> {
+
+    private ClassHierarchy hierarchy;
+
+    @Override
+    public CallGraph<Invoke, JMethod> build() {
+        hierarchy = World.get().getClassHierarchy();
+        DefaultCallGraph callGraph = new DefaultCallGraph();
+        JMethod entry = World.get().getMainMethod();
+        callGraph.addEntryMethod(entry);
+        Deque<JMethod> workList = new ArrayDeque<>();
+        workList.add(entry);
+        while (!workList.isEmpty()) {
+            JMethod method = workList.poll();
+            if (callGraph.addReachableMethod(method)) {
+                callGraph.callSitesIn(method).forEach(callSite -> {
+                    CallKind kind = CallGraphs.getCallKind(callSite);
+                    for (JMethod callee : resolve(callSite)) {
+                        callGraph.addEdge(new Edge<>(kind, callSite, callee));
+                        workList.add(callee);
+                    }
+                });
+            }
+        }
+        return callGraph;
+    }
+
+    /**
+     * Resolves call targets (callees) of a call site via CHA.
+     */
+    private Set<JMethod> resolve(Invoke callSite) {
+        Set<JMethod> callees = Sets.newHybridSet();
+        if (callSite.isVirtual() || callSite.isInterface()) {
+            MethodRef methodRef = callSite.getMethodRef();
+            Deque<JClass> classes = new ArrayDeque<>();
+            Set<JClass> visited = Sets.newSet();
+            classes.add(methodRef.getDeclaringClass());
+            while (!classes.isEmpty()) {
+                JClass jclass = classes.poll();
+                if (!visited.add(jclass)) {
+                    continue;
+                }
+                if (!jclass.isAbstract()) {
+                    JMethod callee = hierarchy.dispatch(jclass, methodRef);
+                    if (callee != null) {
+                        callees.add(callee);
+                    }
+                }
+                if (jclass.isInterface()) {
+                    classes.addAll(hierarchy.getDirectSubinterfacesOf(jclass));
+                    classes.addAll(hierarchy.getDirectImplementorsOf(jclass));
+                } else {
+                    classes.addAll(hierarchy.getDirectSubclassesOf(jclass));
+                }
+            }
+        } else if (callSite.isStatic() || callSite.isSpecial()) {
+            JMethod callee = CallGraphs.resolveCallee(null, callSite);
+            if (callee != null) {
+                callees.add(callee);
+            }
+        }
+        return callees;
+    }
+}
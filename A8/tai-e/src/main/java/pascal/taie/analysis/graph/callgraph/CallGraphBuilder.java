@@ -55,6 +55,7 @@ public class CallGraphBuilder extends ProgramAnalysis {
     @Override
     public CallGraph<Invoke, JMethod> analyze() {
         CGBuilder<Invoke, JMethod> builder = switch (algorithm) {
+            case "cha" -> new CHABuilder();
             case "pta", "cipta", "cspta" -> new PTABasedBuilder(algorithm);
             default -> throw new ConfigException(
                     "Unknown call graph building algorithm: " + algorithm);
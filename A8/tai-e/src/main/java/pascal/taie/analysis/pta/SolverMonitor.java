@@ -0,0 +1,224 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.config.AnalysisOptions;
+
+import javax.annotation.Nullable;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+/**
+ * Live progress and hot-path counters of a pointer analysis solver.
+ * While the solver is running, the counters are exposed via JMX
+ * (as {@code pascal.taie:type=SolverMonitor,name=<name>}) and logged
+ * periodically.
+ * <p>
+ * Monitoring is enabled by option "monitor", and the interval (in seconds)
+ * of logging is given by option "monitor-interval". When it is disabled,
+ * {@link #make} returns null and the solver skips all monitoring, so that
+ * the overhead is a null check on each hot path.
+ */
+public class SolverMonitor implements SolverMonitorMBean {
+
+    private static final Logger logger = LogManager.getLogger(SolverMonitor.class);
+
+    private static final int DEFAULT_INTERVAL = 10;
+
+    private final String name;
+
+    private final int interval;
+
+    private final IntSupplier workListSize;
+
+    private final IntSupplier reachableMethods;
+
+    private final IntSupplier contexts;
+
+    private final LongAdder processedEntries = new LongAdder();
+
+    private final LongAdder propagatedObjects = new LongAdder();
+
+    private final LongAdder pfgEdges = new LongAdder();
+
+    private final LongAdder propagateNanos = new LongAdder();
+
+    private final LongAdder processCallNanos = new LongAdder();
+
+    private long startTime;
+
+    private ScheduledExecutorService scheduler;
+
+    private ObjectName objectName;
+
+    private SolverMonitor(String name, int interval, IntSupplier workListSize,
+                          IntSupplier reachableMethods, IntSupplier contexts) {
+        this.name = name;
+        this.interval = interval;
+        this.workListSize = workListSize;
+        this.reachableMethods = reachableMethods;
+        this.contexts = contexts;
+    }
+
+    /**
+     * @param name             name of the monitored solver
+     * @param workListSize     supplier of the number of pending entries
+     * @param reachableMethods supplier of the number of reachable methods
+     * @param contexts         supplier of the number of contexts
+     * @return a monitor if monitoring is enabled by the options,
+     * otherwise null.
+     */
+    @Nullable
+    public static SolverMonitor make(AnalysisOptions options, String name,
+                                     IntSupplier workListSize,
+                                     IntSupplier reachableMethods,
+                                     IntSupplier contexts) {
+        if (!options.getBooleanOrDefault("monitor", false)) {
+            return null;
+        }
+        Object interval = options.get("monitor-interval");
+        return new SolverMonitor(name,
+                interval != null ? ((Number) interval).intValue() : DEFAULT_INTERVAL,
+                workListSize, reachableMethods, contexts);
+    }
+
+    /**
+     * Registers this monitor to JMX and starts periodic logging.
+     */
+    public void start() {
+        startTime = System.nanoTime();
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            objectName = new ObjectName("pascal.taie:type=SolverMonitor,name="
+                    + ObjectName.quote(name));
+            server.registerMBean(this, objectName);
+        } catch (JMException e) {
+            logger.warn("Failed to register {} to JMX", name, e);
+            objectName = null;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "solver-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(this::log, interval, interval, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stops periodic logging, unregisters this monitor from JMX,
+     * and logs the final counters.
+     */
+    public void stop() {
+        scheduler.shutdownNow();
+        if (objectName != null) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+            } catch (JMException e) {
+                logger.warn("Failed to unregister {} from JMX", name, e);
+            }
+        }
+        log();
+    }
+
+    private void log() {
+        logger.info("[{}] {}s elapsed, #work-list: {}, #processed entries: {}," +
+                        " #propagated objects: {}, #PFG edges: {}," +
+                        " #reachable methods: {}, #contexts: {}," +
+                        " time in propagate/processCall: {}ms/{}ms",
+                name, getElapsedMillis() / 1000, getWorkListSize(),
+                getProcessedEntries(), getPropagatedObjects(), getPFGEdges(),
+                getReachableMethods(), getContexts(),
+                getPropagateMillis(), getProcessCallMillis());
+    }
+
+    public void onEntryProcessed() {
+        processedEntries.increment();
+    }
+
+    public void onPropagated(int objects, long nanos) {
+        propagatedObjects.add(objects);
+        propagateNanos.add(nanos);
+    }
+
+    public void onPFGEdgeAdded() {
+        pfgEdges.increment();
+    }
+
+    public void onCallProcessed(long nanos) {
+        processCallNanos.add(nanos);
+    }
+
+    @Override
+    public long getElapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+    }
+
+    @Override
+    public int getWorkListSize() {
+        return workListSize.getAsInt();
+    }
+
+    @Override
+    public long getProcessedEntries() {
+        return processedEntries.sum();
+    }
+
+    @Override
+    public long getPropagatedObjects() {
+        return propagatedObjects.sum();
+    }
+
+    @Override
+    public long getPFGEdges() {
+        return pfgEdges.sum();
+    }
+
+    @Override
+    public int getReachableMethods() {
+        return reachableMethods.getAsInt();
+    }
+
+    @Override
+    public int getContexts() {
+        return contexts.getAsInt();
+    }
+
+    @Override
+    public long getPropagateMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(propagateNanos.sum());
+    }
+
+    @Override
+    public long getProcessCallMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(processCallNanos.sum());
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta;
+
+import pascal.taie.config.Options;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Fingerprint of the world, i.e., the paths, sizes and modification times
+ * of the class path entries, and the options which decide the classes
+ * in the world (e.g., the Java version and whether the JVM classes are
+ * prepended). Data saved across runs (e.g., cached taint configs and
+ * pointer analysis snapshots) record the fingerprint of the world they
+ * were computed for, and are reused only if the fingerprints match.
+ */
+public final class WorldFingerprint {
+
+    private static final String HASH_ALGORITHM = "SHA-256";
+
+    private WorldFingerprint() {
+    }
+
+    /**
+     * @return the fingerprint of the world given by the options.
+     */
+    public static byte[] compute(Options options) throws IOException {
+        MessageDigest digest = newDigest();
+        String classPath = options.getClassPath();
+        digest.update((options.getJavaVersion() + "|" +
+                options.isPrependJVM() + "|" +
+                options.getMainClass() + "|" +
+                options.getWorldBuilderClass().getName() + "\n")
+                .getBytes(StandardCharsets.UTF_8));
+        if (classPath == null) {
+            return digest.digest();
+        }
+        for (String entry : classPath.split(File.pathSeparator)) {
+            Path root = Path.of(entry);
+            if (!Files.exists(root)) {
+                continue;
+            }
+            List<Path> files;
+            try (Stream<Path> walk = Files.walk(root)) {
+                files = walk.filter(Files::isRegularFile).sorted().toList();
+            }
+            for (Path file : files) {
+                BasicFileAttributes attrs = Files.readAttributes(
+                        file, BasicFileAttributes.class);
+                digest.update((file + "|" + attrs.size() + "|" +
+                        attrs.lastModifiedTime().toMillis() + "\n")
+                        .getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        return digest.digest();
+    }
+
+    /**
+     * @return the hash of given content, computed by the same algorithm
+     * as the fingerprints.
+     */
+    public static byte[] hash(byte[] content) {
+        return newDigest().digest(content);
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance(HASH_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new AssertionError(HASH_ALGORITHM + " is unavailable", e);
+        }
+    }
+}
@@ -31,20 +31,49 @@ import pascal.taie.analysis.pta.core.cs.element.CSMethod;
 import pascal.taie.ir.stmt.Invoke;
 import pascal.taie.ir.stmt.Stmt;
 import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
 import pascal.taie.util.collection.Sets;
 import pascal.taie.util.collection.Views;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Stream;
 
 /**
  * Represents context-sensitive call graph.
+ * The modifications of this call graph are thread-safe, so that
+ * it can be built by parallel pointer analysis.
  */
 public class CSCallGraph extends AbstractCallGraph<CSCallSite, CSMethod> {
 
     private final CSManager csManager;
 
+    /**
+     * Number of context-sensitive call edges.
+     */
+    private volatile int numberOfEdges;
+
+    /**
+     * Number of reachable contexts of each method, whose key set is
+     * the context-insensitive reachable methods.
+     */
+    private final Map<JMethod, Integer> methodContexts = Maps.newMap();
+
+    /**
+     * Number of context-sensitive call edges projected to each
+     * context-insensitive call edge.
+     */
+    private final Map<Edge<Invoke, JMethod>, Integer> edgeContexts = Maps.newMap();
+
+    /**
+     * Invokes in each method, which are shared by its contexts.
+     */
+    private final Map<JMethod, Invoke[]> invokes = Maps.newConcurrentMap();
+
     public CSCallGraph(CSManager csManager) {
         this.csManager = csManager;
     }
@@ -52,7 +81,7 @@ public class CSCallGraph extends AbstractCallGraph<CSCallSite, CSMethod> {
     /**
      * Adds an entry method to this call graph.
      */
-    public void addEntryMethod(CSMethod entryMethod) {
+    public synchronized void addEntryMethod(CSMethod entryMethod) {
         entryMethods.add(entryMethod);
     }
 
@@ -62,8 +91,9 @@ public class CSCallGraph extends AbstractCallGraph<CSCallSite, CSMethod> {
      * @return true if this call graph changed as a result of the call,
      * otherwise false.
      */
-    public boolean addReachableMethod(CSMethod csMethod) {
+    public synchronized boolean addReachableMethod(CSMethod csMethod) {
         if (reachableMethods.add(csMethod)) {
+            methodContexts.merge(csMethod.getMethod(), 1, Integer::sum);
             callSitesIn(csMethod).forEach(csCallSite ->
                     csCallSite.setContainer(csMethod));
             return true;
@@ -79,15 +109,98 @@ public class CSCallGraph extends AbstractCallGraph<CSCallSite, CSMethod> {
      * @return true if the call graph changed as a result of the call,
      * otherwise false.
      */
-    public boolean addEdge(Edge<CSCallSite, CSMethod> edge) {
+    public synchronized boolean addEdge(Edge<CSCallSite, CSMethod> edge) {
         if (edge.getCallSite().addEdge(edge)) {
             edge.getCallee().addEdge(edge);
+            ++numberOfEdges;
+            edgeContexts.merge(removeContexts(edge), 1, Integer::sum);
+            return true;
+        } else {
+            return false;
+        }
+    }
+
+    /**
+     * Adds an invoke to given method after its IR has been built, e.g.,
+     * by incremental analysis. The call sites of the invoke are added to,
+     * and contained by, the reachable CS methods of given method.
+     */
+    public synchronized void addInvoke(JMethod method, Invoke invoke) {
+        Invoke[] oldInvokes = getInvokesIn(method);
+        Invoke[] newInvokes = Arrays.copyOf(oldInvokes, oldInvokes.length + 1);
+        newInvokes[oldInvokes.length] = invoke;
+        invokes.put(method, newInvokes);
+        reachableMethods.forEach(csMethod -> {
+            if (csMethod.getMethod().equals(method)) {
+                csManager.getCSCallSite(csMethod.getContext(), invoke)
+                        .setContainer(csMethod);
+            }
+        });
+    }
+
+    /**
+     * Removes a reachable method from this call graph. The call edges
+     * to and from the method should be removed separately.
+     *
+     * @return true if this call graph changed as a result of the call,
+     * otherwise false.
+     */
+    public synchronized boolean removeReachableMethod(CSMethod csMethod) {
+        if (reachableMethods.remove(csMethod)) {
+            decrease(methodContexts, csMethod.getMethod());
             return true;
         } else {
             return false;
         }
     }
 
+    /**
+     * Removes a call graph edge from this call graph.
+     *
+     * @return true if the call graph changed as a result of the call,
+     * otherwise false.
+     */
+    public synchronized boolean removeEdge(Edge<CSCallSite, CSMethod> edge) {
+        if (edge.getCallSite().removeEdge(edge)) {
+            edge.getCallee().removeEdge(edge);
+            --numberOfEdges;
+            decrease(edgeContexts, removeContexts(edge));
+            return true;
+        } else {
+            return false;
+        }
+    }
+
+    private static Edge<Invoke, JMethod> removeContexts(Edge<CSCallSite, CSMethod> edge) {
+        return new Edge<>(edge.getKind(), edge.getCallSite().getCallSite(),
+                edge.getCallee().getMethod());
+    }
+
+    private static <K> void decrease(Map<K, Integer> counts, K key) {
+        counts.computeIfPresent(key, (k, n) -> n > 1 ? n - 1 : null);
+    }
+
+    /**
+     * @return the number of context-insensitive reachable methods,
+     * i.e., the methods reachable in any context.
+     */
+    public synchronized int getNumberOfCIMethods() {
+        return methodContexts.size();
+    }
+
+    /**
+     * @return the number of context-insensitive call edges,
+     * i.e., the call edges present in any context.
+     */
+    public synchronized int getNumberOfCIEdges() {
+        return edgeContexts.size();
+    }
+
+    @Override
+    public int getNumberOfEdges() {
+        return numberOfEdges;
+    }
+
     @Override
     public Set<CSCallSite> getCallersOf(CSMethod callee) {
         return Views.toMappedSet(callee.getEdges(), Edge::getCallSite);
@@ -103,18 +216,39 @@ public class CSCallGraph extends AbstractCallGraph<CSCallSite, CSMethod> {
         return csCallSite.getContainer();
     }
 
+    /**
+     * The call sites are computed once for each CS method and cached in it,
+     * and the {@link Invoke}s are collected once for each method and shared
+     * by all its contexts. As invokes are only appended by
+     * {@link #addInvoke(JMethod, Invoke)}, a cache with fewer call sites
+     * than the invokes is stale, and it is recomputed.
+     */
     @Override
     public Set<CSCallSite> getCallSitesIn(CSMethod csMethod) {
-        JMethod method = csMethod.getMethod();
-        Context context = csMethod.getContext();
-        Set<CSCallSite> callSites = Sets.newHybridOrderedSet();
-        for (Stmt s : method.getIR()) {
-            if (s instanceof Invoke) {
-                CSCallSite csCallSite = csManager.getCSCallSite(context, (Invoke) s);
-                callSites.add(csCallSite);
+        Set<CSCallSite> callSites = csMethod.getCallSites();
+        Invoke[] invokes = getInvokesIn(csMethod.getMethod());
+        if (callSites == null || callSites.size() != invokes.length) {
+            Context context = csMethod.getContext();
+            Set<CSCallSite> result = Sets.newHybridOrderedSet();
+            for (Invoke invoke : invokes) {
+                result.add(csManager.getCSCallSite(context, invoke));
             }
+            callSites = Collections.unmodifiableSet(result);
+            csMethod.setCallSites(callSites);
         }
-        return Collections.unmodifiableSet(callSites);
+        return callSites;
+    }
+
+    private Invoke[] getInvokesIn(JMethod method) {
+        return invokes.computeIfAbsent(method, m -> {
+            List<Invoke> result = new ArrayList<>();
+            for (Stmt s : m.getIR()) {
+                if (s instanceof Invoke invoke) {
+                    result.add(invoke);
+                }
+            }
+            return result.toArray(new Invoke[0]);
+        });
     }
 
     @Override
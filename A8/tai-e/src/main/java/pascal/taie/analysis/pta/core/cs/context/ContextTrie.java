@@ -0,0 +1,130 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.cs.context;
+
+import pascal.taie.util.AnalysisException;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Factory of {@link TrieContext}s. Each trie owns its contexts and their
+ * indexes, thus independent analyses (e.g., a pre-analysis and the main
+ * analysis, or two analyses whose results are alive at the same time)
+ * should use different tries, and the contexts of a trie are released
+ * together with the trie.
+ * <p>
+ * All context selectors of one analysis must share the same trie,
+ * so that the contexts selected by them are comparable.
+ * The trie is thread-safe.
+ */
+public class ContextTrie {
+
+    /**
+     * Counter for assigning indexes to contexts.
+     */
+    private final AtomicInteger counter = new AtomicInteger();
+
+    /**
+     * The empty context, i.e., the root of the trie.
+     */
+    private final TrieContext root = new TrieContext(this, null, null);
+
+    /**
+     * @return an empty context.
+     */
+    public Context make() {
+        return root;
+    }
+
+    /**
+     * @return a context that consists of given context elements.
+     */
+    @SafeVarargs
+    public final <T> Context make(T... elements) {
+        TrieContext context = root;
+        for (T elem : elements) {
+            context = context.getChild(elem);
+        }
+        return context;
+    }
+
+    /**
+     * @return a context that appends elem to given parent context and keeps
+     * the last (at most) limit elements, i.e., k-limiting.
+     */
+    public Context append(Context parent, Object elem, int limit) {
+        TrieContext context = makeLastK(asTrieContext(parent), limit - 1);
+        return context.getChild(elem);
+    }
+
+    /**
+     * @return a context that consists of the last (at most) k elements of
+     * given context.
+     */
+    public Context makeLastK(Context context, int k) {
+        return makeLastK(asTrieContext(context), k);
+    }
+
+    /**
+     * @return the number of contexts created by this trie, which is also
+     * the upper bound (exclusive) of the indexes of its contexts.
+     */
+    public int getNumberOfContexts() {
+        return counter.get();
+    }
+
+    int nextIndex() {
+        return counter.getAndIncrement();
+    }
+
+    private TrieContext asTrieContext(Context context) {
+        if (context instanceof TrieContext trieContext
+                && trieContext.getTrie() == this) {
+            return trieContext;
+        }
+        throw new AnalysisException("Expected a context of this trie, but given " +
+                context.getClass().getName() + " " + context +
+                ", contexts of different factories cannot be mixed");
+    }
+
+    private TrieContext makeLastK(TrieContext context, int k) {
+        if (k <= 0) {
+            return root;
+        }
+        if (context.getLength() <= k) {
+            return context;
+        }
+        // collect the last k elements, and then rebuild from the root
+        Object[] elements = new Object[k];
+        TrieContext c = context;
+        for (int i = k - 1; i >= 0; --i) {
+            elements[i] = c.getLastElement();
+            c = c.getParent();
+        }
+        TrieContext result = root;
+        for (Object e : elements) {
+            result = result.getChild(e);
+        }
+        return result;
+    }
+}
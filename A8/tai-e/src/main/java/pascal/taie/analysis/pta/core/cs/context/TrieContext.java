@@ -0,0 +1,144 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.cs.context;
+
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.Indexable;
+import pascal.taie.util.collection.Maps;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Hash-consed contexts organized as a trie. Each context is a node of
+ * the trie, and its elements are the elements on the path from the root
+ * (i.e., the empty context) to the node. The factory methods of
+ * {@link ContextTrie} always return the canonical instance for the same
+ * list of elements, thus contexts of the same trie can be compared by
+ * identity, and each context has a unique index (starting from 0)
+ * in its trie which can be used to index arrays.
+ * <p>
+ * Different from {@link ListContext}, making a context that already exists
+ * is just a look-up from its parent node, and it does not allocate anything.
+ */
+public class TrieContext implements Context, Indexable {
+
+    /**
+     * The trie which this context belongs to.
+     */
+    private final ContextTrie trie;
+
+    private final TrieContext parent;
+
+    /**
+     * The last element of this context.
+     */
+    private final Object elem;
+
+    private final int length;
+
+    private final int index;
+
+    /**
+     * Map from element to the child context which appends the element
+     * to this context. Created on demand.
+     */
+    private volatile ConcurrentMap<Object, TrieContext> children;
+
+    TrieContext(ContextTrie trie, TrieContext parent, Object elem) {
+        this.trie = trie;
+        this.parent = parent;
+        this.elem = elem;
+        this.length = parent == null ? 0 : parent.length + 1;
+        this.index = trie.nextIndex();
+    }
+
+    ContextTrie getTrie() {
+        return trie;
+    }
+
+    TrieContext getParent() {
+        return parent;
+    }
+
+    Object getLastElement() {
+        return elem;
+    }
+
+    TrieContext getChild(Object elem) {
+        ConcurrentMap<Object, TrieContext> map = children;
+        if (map == null) {
+            synchronized (this) {
+                map = children;
+                if (map == null) {
+                    children = map = Maps.newConcurrentMap();
+                }
+            }
+        }
+        TrieContext child = map.get(elem);
+        if (child == null) {
+            child = map.computeIfAbsent(elem, e -> new TrieContext(trie, this, e));
+        }
+        return child;
+    }
+
+    @Override
+    public int getLength() {
+        return length;
+    }
+
+    @Override
+    public Object getElementAt(int i) {
+        if (i >= length || i < 0) {
+            throw new AnalysisException(
+                    "Context " + this + " doesn't have " + i + "-th element");
+        }
+        TrieContext c = this;
+        for (int j = length - 1; j > i; --j) {
+            c = c.parent;
+        }
+        return c.elem;
+    }
+
+    @Override
+    public int getIndex() {
+        return index;
+    }
+
+    @Override
+    public int hashCode() {
+        return index;
+    }
+
+    @Override
+    public String toString() {
+        List<Object> elements = new ArrayList<>(length);
+        for (TrieContext c = this; c.parent != null; c = c.parent) {
+            elements.add(c.elem);
+        }
+        Collections.reverse(elements);
+        return elements.toString();
+    }
+}
@@ -60,7 +60,9 @@ public class CSCallSite extends AbstractCSElement {
     }
 
     public void setContainer(CSMethod container) {
-        assert this.container == null; // should be set only once
+        // should be set only once, except that the container is removed
+        // from and then re-added to the call graph by incremental analysis
+        assert this.container == null || this.container == container;
         this.container = container;
     }
 
@@ -72,6 +74,10 @@ public class CSCallSite extends AbstractCSElement {
         return edges.add(edge);
     }
 
+    public boolean removeEdge(Edge<CSCallSite, CSMethod> edge) {
+        return edges.remove(edge);
+    }
+
     public Set<Edge<CSCallSite, CSMethod>> getEdges() {
         return Collections.unmodifiableSet(edges);
     }
@@ -29,6 +29,7 @@ import pascal.taie.util.AbstractResultHolder;
 import pascal.taie.util.ResultHolder;
 import pascal.taie.util.collection.Sets;
 
+import javax.annotation.Nullable;
 import java.util.Collections;
 import java.util.Optional;
 import java.util.Set;
@@ -46,6 +47,12 @@ public class CSMethod extends AbstractCSElement {
      */
     private final Set<Edge<CSCallSite, CSMethod>> edges = Sets.newHybridSet();
 
+    /**
+     * Call sites in this CS method, which are computed lazily
+     * by the call graph.
+     */
+    private volatile Set<CSCallSite> callSites;
+
     private final ResultHolder resultHolder = new AbstractResultHolder() {};
 
     CSMethod(JMethod method, Context context) {
@@ -64,10 +71,27 @@ public class CSMethod extends AbstractCSElement {
         edges.add(edge);
     }
 
+    public void removeEdge(Edge<CSCallSite, CSMethod> edge) {
+        edges.remove(edge);
+    }
+
     public Set<Edge<CSCallSite, CSMethod>> getEdges() {
         return Collections.unmodifiableSet(edges);
     }
 
+    /**
+     * @return the call sites in this CS method, or null if they
+     * have not been computed.
+     */
+    @Nullable
+    public Set<CSCallSite> getCallSites() {
+        return callSites;
+    }
+
+    public void setCallSites(Set<CSCallSite> callSites) {
+        this.callSites = callSites;
+    }
+
     public <R> R getResult(String id, Supplier<R> supplier) {
         return resultHolder.getResult(id, supplier);
     }
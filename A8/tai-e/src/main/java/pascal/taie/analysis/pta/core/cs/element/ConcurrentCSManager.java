@@ -0,0 +1,176 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.cs.element;
+
+import pascal.taie.analysis.pta.core.cs.context.Context;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.analysis.pta.pts.PointsToSetFactory;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Lock-free implementation of {@link CSManager}, which is used by
+ * parallel pointer analysis. For each kind of elements, this class
+ * guarantees that exactly one instance is created for the same
+ * (context, element) pair even if multiple threads request it
+ * simultaneously. The points-to sets of the pointers created by this
+ * manager also support concurrent updates.
+ * <p>
+ * The context-sensitive elements of each (context-insensitive) element,
+ * e.g., the {@link CSVar}s of a {@link Var}, are kept in a small
+ * {@link SlotTable} indexed by contexts, so that looking up an existing
+ * element takes one lock-free map access plus a few array reads,
+ * and does not allocate any object.
+ */
+public class ConcurrentCSManager implements CSManager {
+
+    private final ConcurrentMap<Var, SlotTable<Context, CSVar>> vars = Maps.newConcurrentMap();
+
+    private final ConcurrentMap<Obj, SlotTable<Context, CSObj>> objs = Maps.newConcurrentMap();
+
+    private final ConcurrentMap<Invoke, SlotTable<Context, CSCallSite>> callSites = Maps.newConcurrentMap();
+
+    private final ConcurrentMap<JMethod, SlotTable<Context, CSMethod>> methods = Maps.newConcurrentMap();
+
+    private final ConcurrentMap<JField, StaticField> staticFields = Maps.newConcurrentMap();
+
+    private final ConcurrentMap<CSObj, SlotTable<JField, InstanceField>> instanceFields = Maps.newConcurrentMap();
+
+    private final ConcurrentMap<CSObj, ArrayIndex> arrayIndexes = Maps.newConcurrentMap();
+
+    @Override
+    public CSVar getCSVar(Context context, Var var) {
+        return getTable(vars, var, CSVar::getContext).getOrCreate(context,
+                c -> initializePointsToSet(new CSVar(var, c)));
+    }
+
+    @Override
+    public CSObj getCSObj(Context heapContext, Obj obj) {
+        return getTable(objs, obj, CSObj::getContext).getOrCreate(heapContext,
+                c -> new CSObj(obj, c));
+    }
+
+    @Override
+    public CSCallSite getCSCallSite(Context context, Invoke callSite) {
+        return getTable(callSites, callSite, CSCallSite::getContext).getOrCreate(context,
+                c -> new CSCallSite(callSite, c));
+    }
+
+    @Override
+    public CSMethod getCSMethod(Context context, JMethod method) {
+        return getTable(methods, method, CSMethod::getContext).getOrCreate(context,
+                c -> new CSMethod(method, c));
+    }
+
+    @Override
+    public StaticField getStaticField(JField field) {
+        StaticField staticField = staticFields.get(field);
+        return staticField != null ? staticField :
+                staticFields.computeIfAbsent(field,
+                        f -> initializePointsToSet(new StaticField(f)));
+    }
+
+    @Override
+    public InstanceField getInstanceField(CSObj base, JField field) {
+        return getTable(instanceFields, base, InstanceField::getField).getOrCreate(field,
+                f -> initializePointsToSet(new InstanceField(base, f)));
+    }
+
+    @Override
+    public ArrayIndex getArrayIndex(CSObj array) {
+        ArrayIndex arrayIndex = arrayIndexes.get(array);
+        return arrayIndex != null ? arrayIndex :
+                arrayIndexes.computeIfAbsent(array,
+                        a -> initializePointsToSet(new ArrayIndex(a)));
+    }
+
+    @Override
+    public Collection<Var> getVars() {
+        return Collections.unmodifiableSet(vars.keySet());
+    }
+
+    @Override
+    public Collection<CSVar> getCSVarsOf(Var var) {
+        SlotTable<Context, CSVar> csVars = vars.get(var);
+        return csVars == null ? Collections.emptySet() : csVars.values();
+    }
+
+    @Override
+    public Collection<CSVar> getCSVars() {
+        return flatten(vars);
+    }
+
+    @Override
+    public Collection<CSObj> getObjects() {
+        return flatten(objs);
+    }
+
+    @Override
+    public Collection<StaticField> getStaticFields() {
+        return Collections.unmodifiableCollection(staticFields.values());
+    }
+
+    @Override
+    public Collection<InstanceField> getInstanceFields() {
+        return flatten(instanceFields);
+    }
+
+    @Override
+    public Collection<ArrayIndex> getArrayIndexes() {
+        return Collections.unmodifiableCollection(arrayIndexes.values());
+    }
+
+    private static <K1, K2, E> SlotTable<K2, E> getTable(
+            ConcurrentMap<K1, SlotTable<K2, E>> map, K1 key,
+            Function<E, K2> keyOf) {
+        SlotTable<K2, E> table = map.get(key);
+        if (table == null) {
+            // computeIfAbsent() may lock the bin, so we only call it
+            // when the table is absent
+            table = map.computeIfAbsent(key, k -> new SlotTable<>(keyOf));
+        }
+        return table;
+    }
+
+    private static <K1, K2, E> Collection<E> flatten(
+            ConcurrentMap<K1, SlotTable<K2, E>> map) {
+        return map.values()
+                .stream()
+                .flatMap(table -> table.values().stream())
+                .collect(Collectors.toUnmodifiableList());
+    }
+
+    private static <P extends Pointer> P initializePointsToSet(P pointer) {
+        pointer.setPointsToSet(PointsToSetFactory.makeConcurrent());
+        return pointer;
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.cs.element;
+
+import pascal.taie.util.Indexable;
+import pascal.taie.util.collection.Maps;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+
+/**
+ * Lock-free table which maps keys (typically contexts) to elements.
+ * Each table is expected to hold a few elements, e.g., the context-sensitive
+ * variables of the same variable. Thus, the elements are stored in a small
+ * open-addressing array, and the probing starts from the index of the key
+ * (if the key is {@link Indexable}, e.g., interned contexts). The elements
+ * are inserted via compare-and-set, and look-ups of existing elements
+ * neither lock nor allocate. When the array is full, the table falls back
+ * to a concurrent map.
+ *
+ * @param <K> type of keys
+ * @param <E> type of elements
+ */
+final class SlotTable<K, E> {
+
+    /**
+     * Capacity of the array, must be power of 2.
+     */
+    private static final int CAPACITY = 8;
+
+    private final AtomicReferenceArray<E> slots = new AtomicReferenceArray<>(CAPACITY);
+
+    /**
+     * Extracts the key of an element.
+     */
+    private final Function<E, K> keyOf;
+
+    /**
+     * Holds the elements that cannot be put in {@link #slots}.
+     * Created on demand.
+     */
+    private volatile ConcurrentMap<K, E> overflow;
+
+    SlotTable(Function<E, K> keyOf) {
+        this.keyOf = keyOf;
+    }
+
+    /**
+     * @return the element of given key. If the element is absent,
+     * creates it by the factory and inserts it to this table.
+     * For the same key, the factory is called by at most one thread
+     * in most cases, and exactly one element is inserted and returned.
+     */
+    E getOrCreate(K key, Function<K, E> factory) {
+        int start = index(key);
+        E created = null;
+        for (int i = 0; i < CAPACITY; ++i) {
+            int slot = (start + i) & (CAPACITY - 1);
+            E elem = slots.get(slot);
+            while (elem == null) {
+                if (created == null) {
+                    created = factory.apply(key);
+                }
+                if (slots.compareAndSet(slot, null, created)) {
+                    return created;
+                }
+                // another thread filled the slot, check its element
+                elem = slots.get(slot);
+            }
+            if (matches(elem, key)) {
+                return elem;
+            }
+        }
+        return getOverflow().computeIfAbsent(key, factory);
+    }
+
+    /**
+     * @return all elements in this table.
+     */
+    Collection<E> values() {
+        List<E> values = new ArrayList<>(CAPACITY);
+        for (int i = 0; i < CAPACITY; ++i) {
+            E elem = slots.get(i);
+            if (elem != null) {
+                values.add(elem);
+            }
+        }
+        ConcurrentMap<K, E> map = overflow;
+        if (map != null) {
+            values.addAll(map.values());
+        }
+        return Collections.unmodifiableList(values);
+    }
+
+    private boolean matches(E elem, K key) {
+        K k = keyOf.apply(elem);
+        return k == key || k.equals(key);
+    }
+
+    private ConcurrentMap<K, E> getOverflow() {
+        ConcurrentMap<K, E> map = overflow;
+        if (map == null) {
+            synchronized (this) {
+                map = overflow;
+                if (map == null) {
+                    overflow = map = Maps.newConcurrentMap();
+                }
+            }
+        }
+        return map;
+    }
+
+    private static int index(Object key) {
+        Objects.requireNonNull(key);
+        int h = key instanceof Indexable indexable ?
+                indexable.getIndex() : key.hashCode();
+        return h ^ (h >>> 16);
+    }
+}
@@ -23,7 +23,7 @@
 package pascal.taie.analysis.pta.core.cs.selector;
 
 import pascal.taie.analysis.pta.core.cs.context.Context;
-import pascal.taie.analysis.pta.core.cs.context.ListContext;
+import pascal.taie.analysis.pta.core.cs.context.ContextTrie;
 import pascal.taie.analysis.pta.core.cs.element.CSCallSite;
 import pascal.taie.analysis.pta.core.cs.element.CSMethod;
 import pascal.taie.analysis.pta.core.cs.element.CSObj;
@@ -35,9 +35,19 @@ import pascal.taie.language.classes.JMethod;
  */
 public class CISelector implements ContextSelector {
 
+    private final ContextTrie trie;
+
+    public CISelector() {
+        this(new ContextTrie());
+    }
+
+    public CISelector(ContextTrie trie) {
+        this.trie = trie;
+    }
+
     @Override
     public Context getEmptyContext() {
-        return ListContext.make();
+        return trie.make();
     }
 
     @Override
@@ -0,0 +1,105 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.cs.selector;
+
+import pascal.taie.analysis.pta.core.cs.context.Context;
+import pascal.taie.analysis.pta.core.cs.element.CSCallSite;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Precision-guided selective context sensitivity, which applies
+ * the given context selector only to the precision-critical methods
+ * (e.g., selected by {@link pascal.taie.analysis.pta.toolkit.zipper.Zipper}),
+ * and analyzes the other methods context-insensitively.
+ * <p>
+ * The delegated selector and the context-insensitive selector must produce
+ * contexts via the same
+ * {@link pascal.taie.analysis.pta.core.cs.context.ContextTrie},
+ * so that the contexts selected by the two selectors are comparable.
+ */
+public class ZipperSelector extends SelectiveSelector {
+
+    private final Set<JMethod> pcms;
+
+    /**
+     * Precision-critical methods which have been analyzed
+     * context-sensitively.
+     */
+    private final Set<JMethod> csMethods = Sets.newConcurrentSet();
+
+    public ZipperSelector(ContextSelector delegate, ContextSelector ciSelector,
+                          Set<JMethod> pcms) {
+        super(toSelectors(delegate, pcms), ciSelector);
+        this.pcms = pcms;
+    }
+
+    private static Map<JMethod, ContextSelector> toSelectors(
+            ContextSelector delegate, Set<JMethod> pcms) {
+        Map<JMethod, ContextSelector> selectors = Maps.newMap(pcms.size());
+        pcms.forEach(m -> selectors.put(m, delegate));
+        return selectors;
+    }
+
+    @Override
+    public Context selectContext(CSCallSite callSite, JMethod callee) {
+        countCSMethod(callee);
+        return super.selectContext(callSite, callee);
+    }
+
+    @Override
+    public Context selectContext(CSCallSite callSite, CSObj recv, JMethod callee) {
+        countCSMethod(callee);
+        return super.selectContext(callSite, recv, callee);
+    }
+
+    /**
+     * Only the contexts of methods are counted, as heap contexts
+     * are selected for the methods which have already been counted.
+     */
+    private void countCSMethod(JMethod callee) {
+        if (pcms.contains(callee)) {
+            csMethods.add(callee);
+        }
+    }
+
+    /**
+     * @return the number of precision-critical methods.
+     */
+    public int getNumberOfCriticalMethods() {
+        return pcms.size();
+    }
+
+    /**
+     * @return the number of methods which have been analyzed
+     * context-sensitively so far.
+     */
+    public int getNumberOfCSMethods() {
+        return csMethods.size();
+    }
+}
@@ -22,19 +22,38 @@
 
 package pascal.taie.analysis.pta.cs;
 
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import pascal.taie.analysis.ProgramAnalysis;
+import pascal.taie.analysis.graph.callgraph.CHABuilder;
 import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.core.cs.context.ContextTrie;
 import pascal.taie.analysis.pta.core.cs.selector.CISelector;
 import pascal.taie.analysis.pta.core.cs.selector.ContextSelector;
+import pascal.taie.analysis.pta.core.cs.selector.SelectiveSelector;
+import pascal.taie.analysis.pta.core.cs.selector.ZipperSelector;
 import pascal.taie.analysis.pta.core.heap.AllocationSiteBasedModel;
+import pascal.taie.analysis.pta.core.heap.HeapModel;
+import pascal.taie.analysis.pta.demand.DemandDrivenPTA;
+import pascal.taie.analysis.pta.demand.DemandDrivenResult;
 import pascal.taie.analysis.pta.plugin.ResultProcessor;
+import pascal.taie.analysis.pta.snapshot.PointerAnalysisSnapshot;
+import pascal.taie.analysis.pta.toolkit.scaler.Scaler;
+import pascal.taie.analysis.pta.toolkit.zipper.Zipper;
 import pascal.taie.config.AnalysisConfig;
 import pascal.taie.config.AnalysisOptions;
 import pascal.taie.config.ConfigException;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.AnalysisException;
 import pascal.taie.util.Strings;
+import pascal.taie.util.collection.Maps;
 
+import java.io.IOException;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Context-sensitive pointer analysis.
@@ -43,25 +62,174 @@ public class CSPTA extends ProgramAnalysis {
 
     public static final String ID = "cspta";
 
+    private static final Logger logger = LogManager.getLogger(CSPTA.class);
+
+    private static final int DEFAULT_DEMAND_BUDGET = 100_000;
+
     public CSPTA(AnalysisConfig config) {
         super(config);
     }
 
+    /**
+     * If option "load-snapshot" is given, restores the result from
+     * the snapshot file instead of solving it. If option "save-snapshot"
+     * is given, saves the solved result to the snapshot file. As snapshots
+     * do not contain taint flows, option "load-snapshot" cannot be used
+     * together with taint analysis.
+     * <p>
+     * If option "demand-driven" is true, returns a result whose points-to
+     * sets of variables are computed on demand, see
+     * {@link #makeDemandDrivenPTA(AnalysisOptions)}.
+     */
     @Override
     public PointerAnalysisResult analyze() {
         AnalysisOptions options = getOptions();
-        Solver solver = new Solver(options,
-                new AllocationSiteBasedModel(options),
-                getContextSelector(options.getString("cs")));
-        solver.solve();
-        PointerAnalysisResult result = solver.getResult();
+        if (options.getBooleanOrDefault("demand-driven", false)) {
+            if (options.getString("taint-config") != null ||
+                    options.getBooleanOrDefault("type-filter", false)) {
+                throw new ConfigException("Demand-driven analysis cannot" +
+                        " run with taint analysis or type filter");
+            }
+            // the result is not processed, as processing it would
+            // run the exhaustive analysis
+            return new DemandDrivenResult(makeDemandDrivenPTA(options));
+        }
+        String loadSnapshot = options.getString("load-snapshot");
+        PointerAnalysisResult result;
+        if (loadSnapshot != null) {
+            if (options.getString("taint-config") != null) {
+                // taint flows are not saved in snapshots,
+                // and taint analysis only runs with the solver
+                throw new ConfigException(
+                        "Taint analysis cannot run on loaded snapshot " + loadSnapshot);
+            }
+            try {
+                result = PointerAnalysisSnapshot.load(Path.of(loadSnapshot),
+                        new AllocationSiteBasedModel(options));
+            } catch (IOException e) {
+                throw new AnalysisException(
+                        "Failed to load snapshot " + loadSnapshot, e);
+            }
+        } else {
+            result = solve(options);
+            String saveSnapshot = options.getString("save-snapshot");
+            if (saveSnapshot != null) {
+                try {
+                    PointerAnalysisSnapshot.save(result, Path.of(saveSnapshot));
+                } catch (IOException e) {
+                    throw new AnalysisException(
+                            "Failed to save snapshot " + saveSnapshot, e);
+                }
+            }
+        }
         ResultProcessor.process(options, result);
         return result;
     }
 
-    private static ContextSelector getContextSelector(String cs) {
+    private static PointerAnalysisResult solve(AnalysisOptions options) {
+        ContextSelector selector = getContextSelector(options);
+        Solver solver = new Solver(options,
+                new AllocationSiteBasedModel(options), selector);
+        solver.solve();
+        if (selector instanceof ZipperSelector zipperSelector) {
+            logger.info("Zipper: #methods analyzed context-sensitively: {}" +
+                            " (#precision-critical methods: {})",
+                    zipperSelector.getNumberOfCSMethods(),
+                    zipperSelector.getNumberOfCriticalMethods());
+        }
+        return solver.getResult();
+    }
+
+    /**
+     * Creates a demand-driven points-to analysis on the call graph
+     * built by CHA. The queries exceeding the budget given by option
+     * "demand-budget" fall back to the result of this analysis run
+     * context-insensitively, as the demand-driven analysis is
+     * context-insensitive; the context sensitivity given by option "cs"
+     * is ignored.
+     */
+    private static DemandDrivenPTA makeDemandDrivenPTA(AnalysisOptions options) {
+        Object budget = options.get("demand-budget");
+        HeapModel heapModel = new AllocationSiteBasedModel(options);
+        return new DemandDrivenPTA(new CHABuilder().build(), heapModel,
+                budget != null ? ((Number) budget).intValue() : DEFAULT_DEMAND_BUDGET,
+                () -> {
+                    // share the heap model, so that the objects given by
+                    // demand-driven and exhaustive analyses are the same
+                    Solver solver = new Solver(options, heapModel,
+                            new CISelector(), false);
+                    solver.solve();
+                    return solver.getResult();
+                });
+    }
+
+    /**
+     * If option "zipper" is true, the selector given by option "cs" is
+     * applied only to the precision-critical methods selected by Zipper.
+     */
+    private static ContextSelector getContextSelector(AnalysisOptions options) {
+        String cs = options.getString("cs");
+        // all selectors of this analysis share the same context trie
+        ContextTrie trie = new ContextTrie();
+        PointerAnalysisResult preResult = null;
+        ContextSelector selector;
+        if (cs.equals("scaler")) {
+            preResult = runPreAnalysis(options);
+            selector = getScalerSelector(options, preResult, trie);
+        } else {
+            selector = getContextSelector(cs, trie);
+        }
+        if (options.getBooleanOrDefault("zipper", false)) {
+            if (preResult == null) {
+                preResult = runPreAnalysis(options);
+            }
+            Set<JMethod> pcms = new Zipper(preResult)
+                    .selectPrecisionCriticalMethods();
+            selector = new ZipperSelector(selector, new CISelector(trie), pcms);
+        }
+        return selector;
+    }
+
+    /**
+     * Runs a context-insensitive pre-analysis for the selective
+     * context sensitivity.
+     */
+    private static PointerAnalysisResult runPreAnalysis(AnalysisOptions options) {
+        logger.info("Running context-insensitive pre-analysis ...");
+        Solver preSolver = new Solver(options,
+                new AllocationSiteBasedModel(options), new CISelector(), false);
+        preSolver.solve();
+        return preSolver.getResult();
+    }
+
+    /**
+     * Uses Scaler to select context sensitivity variant for each method
+     * with respect to the total context budget given by option
+     * "scaler-tst" (if absent, use the default budget of Scaler).
+     */
+    private static ContextSelector getScalerSelector(
+            AnalysisOptions options, PointerAnalysisResult preResult,
+            ContextTrie trie) {
+        Object tst = options.get("scaler-tst");
+        Scaler scaler = tst != null ?
+                new Scaler(preResult, ((Number) tst).longValue()) :
+                new Scaler(preResult);
+        Map<JMethod, String> variants = scaler.selectContext();
+        // share the selector among the methods of the same variant
+        Map<String, ContextSelector> variantSelectors = Maps.newMap();
+        Map<JMethod, ContextSelector> selectors = Maps.newMap(variants.size());
+        variants.forEach((method, variant) -> selectors.put(method,
+                variantSelectors.computeIfAbsent(variant,
+                        v -> getContextSelector(v, trie))));
+        Map<String, Integer> counts = Maps.newMap();
+        variants.values().forEach(v -> counts.merge(v, 1, Integer::sum));
+        logger.info("Scaler selected context sensitivity variants: {}", counts);
+        return new SelectiveSelector(selectors, new CISelector(trie));
+    }
+
+    private static ContextSelector getContextSelector(String cs, ContextTrie trie) {
         if (cs.equals("ci")) {
-            return new CISelector();
+            return new CISelector(trie);
         } else {
             try {
                 // we expect that the argument of context-sensitivity variant
@@ -73,8 +241,8 @@ public class CSPTA extends ProgramAnalysis {
                 String selectorName = "pascal.taie.analysis.pta.core.cs.selector." +
                         "_" + k + kind + "Selector";
                 Class<?> c = Class.forName(selectorName);
-                Constructor<?> ctor = c.getConstructor();
-                return (ContextSelector) ctor.newInstance();
+                Constructor<?> ctor = c.getConstructor(ContextTrie.class);
+                return (ContextSelector) ctor.newInstance(trie);
             } catch (RuntimeException e) {
                 throw new ConfigException("Unexpected context-sensitivity variants: " + cs, e);
             } catch (ClassNotFoundException | NoSuchMethodException |
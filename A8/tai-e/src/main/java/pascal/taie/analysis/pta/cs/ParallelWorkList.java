@@ -0,0 +1,135 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.cs;
+
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.pts.PointsToSet;
+import pascal.taie.util.AnalysisException;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Work list backed by a work-stealing {@link ForkJoinPool}.
+ * Different from {@link WorkList}, the entries are not polled by the solver;
+ * instead, each entry is processed by a worker thread as soon as it is added.
+ * Entries added by worker threads are pushed to their local queues, and idle
+ * workers steal entries from the busy ones.
+ */
+class ParallelWorkList extends WorkList {
+
+    private final ForkJoinPool pool;
+
+    /**
+     * Processes each entry of this work list.
+     */
+    private final Consumer<Entry> processor;
+
+    /**
+     * The first exception thrown by the processor, if any.
+     */
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    ParallelWorkList(int threads, Consumer<Entry> processor) {
+        this.pool = new ForkJoinPool(threads);
+        this.processor = processor;
+    }
+
+    @Override
+    void addEntry(Pointer pointer, PointsToSet pointsToSet) {
+        EntryTask task = new EntryTask(new Entry(pointer, pointsToSet));
+        if (Thread.currentThread() instanceof ForkJoinWorkerThread worker
+                && worker.getPool() == pool) {
+            task.fork();
+        } else {
+            pool.execute(task);
+        }
+    }
+
+    /**
+     * Entries are never queued in this work list for polling.
+     */
+    @Override
+    Entry pollEntry() {
+        return null;
+    }
+
+    @Override
+    boolean isEmpty() {
+        return pool.isQuiescent();
+    }
+
+    /**
+     * @return an estimate of the number of entries queued in the pool.
+     */
+    @Override
+    int size() {
+        return (int) (pool.getQueuedTaskCount() + pool.getQueuedSubmissionCount());
+    }
+
+    /**
+     * Waits until all entries (including the ones added during processing)
+     * have been processed, and then shuts down the thread pool.
+     *
+     * @throws AnalysisException if any entry failed to be processed
+     */
+    void awaitCompletion() {
+        while (!pool.awaitQuiescence(1, TimeUnit.SECONDS)) {
+            if (failure.get() != null) {
+                break;
+            }
+        }
+        pool.shutdownNow();
+        Throwable e = failure.get();
+        if (e != null) {
+            throw new AnalysisException("Parallel pointer analysis failed", e);
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private class EntryTask extends RecursiveAction {
+
+        private final Entry entry;
+
+        private EntryTask(Entry entry) {
+            this.entry = entry;
+        }
+
+        @Override
+        protected void compute() {
+            if (failure.get() != null) {
+                // the analysis has failed, just drop the remaining entries
+                return;
+            }
+            try {
+                processor.accept(entry);
+            } catch (Throwable e) {
+                failure.compareAndSet(null, e);
+            }
+        }
+    }
+}
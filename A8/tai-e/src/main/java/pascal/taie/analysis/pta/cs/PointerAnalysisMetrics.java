@@ -0,0 +1,113 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.cs;
+
+import pascal.taie.analysis.pta.core.cs.CSCallGraph;
+import pascal.taie.analysis.pta.core.cs.element.ArrayIndex;
+import pascal.taie.analysis.pta.core.cs.element.CSVar;
+import pascal.taie.analysis.pta.core.cs.element.InstanceField;
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.core.cs.element.StaticField;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of the results of {@link Solver}, which are maintained
+ * incrementally as the results grow (or shrink in incremental mode).
+ * All getters are O(1), thus the metrics can be polled during a run.
+ */
+public class PointerAnalysisMetrics {
+
+    private final CSCallGraph callGraph;
+
+    private final LongAdder varPointsTo = new LongAdder();
+
+    private final LongAdder staticFieldPointsTo = new LongAdder();
+
+    private final LongAdder instanceFieldPointsTo = new LongAdder();
+
+    private final LongAdder arrayPointsTo = new LongAdder();
+
+    PointerAnalysisMetrics(CSCallGraph callGraph) {
+        this.callGraph = callGraph;
+    }
+
+    /**
+     * Records that the points-to set of given pointer changed in size by delta.
+     */
+    void addPointsTo(Pointer pointer, int delta) {
+        if (pointer instanceof CSVar) {
+            varPointsTo.add(delta);
+        } else if (pointer instanceof InstanceField) {
+            instanceFieldPointsTo.add(delta);
+        } else if (pointer instanceof ArrayIndex) {
+            arrayPointsTo.add(delta);
+        } else if (pointer instanceof StaticField) {
+            staticFieldPointsTo.add(delta);
+        }
+    }
+
+    /**
+     * @return the total size of the points-to sets of context-sensitive variables.
+     */
+    public long getVarPointsTo() {
+        return varPointsTo.sum();
+    }
+
+    /**
+     * @return the total size of the points-to sets of static fields.
+     */
+    public long getStaticFieldPointsTo() {
+        return staticFieldPointsTo.sum();
+    }
+
+    /**
+     * @return the total size of the points-to sets of instance fields.
+     */
+    public long getInstanceFieldPointsTo() {
+        return instanceFieldPointsTo.sum();
+    }
+
+    /**
+     * @return the total size of the points-to sets of array indexes.
+     */
+    public long getArrayPointsTo() {
+        return arrayPointsTo.sum();
+    }
+
+    public int getNumberOfReachableMethods() {
+        return callGraph.getNumberOfCIMethods();
+    }
+
+    public int getNumberOfReachableCSMethods() {
+        return callGraph.getNumberOfMethods();
+    }
+
+    public int getNumberOfCallEdges() {
+        return callGraph.getNumberOfCIEdges();
+    }
+
+    public int getNumberOfCSCallEdges() {
+        return callGraph.getNumberOfEdges();
+    }
+}
@@ -23,9 +23,12 @@
 package pascal.taie.analysis.pta.cs;
 
 import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.util.collection.MapSetMultiMap;
 import pascal.taie.util.collection.Maps;
 import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Sets;
 
+import javax.annotation.Nullable;
 import java.util.Set;
 
 /**
@@ -34,24 +37,95 @@ import java.util.Set;
 class PointerFlowGraph {
 
     /**
-     * Map from a pointer (node) to its successors in PFG.
+     * Map from a pointer (node) to its out edges in PFG.
      */
-    private final MultiMap<Pointer, Pointer> successors = Maps.newMultiMap();
+    private final MultiMap<Pointer, PointerFlowEdge> outEdges;
+
+    /**
+     * Map from a pointer (node) to its in edges in PFG, or null if
+     * in edges are not tracked.
+     */
+    @Nullable
+    private final MultiMap<Pointer, PointerFlowEdge> inEdges;
+
+    PointerFlowGraph() {
+        this(false, false);
+    }
+
+    /**
+     * @param concurrent   whether this PFG may be modified by multiple
+     *                     threads simultaneously.
+     * @param trackInEdges whether to maintain the in edges of the nodes,
+     *                     which are required to remove edges.
+     */
+    PointerFlowGraph(boolean concurrent, boolean trackInEdges) {
+        outEdges = concurrent ?
+                new MapSetMultiMap<>(Maps.newConcurrentMap(), Sets::newConcurrentSet) :
+                Maps.newMultiMap();
+        inEdges = trackInEdges ? Maps.newMultiMap() : null;
+    }
 
     /**
      * Adds an edge (source -> target) to this PFG.
      *
+     * @param filter type filter of the edge, which is determined by
+     *               source and target, or null if the edge has no filter.
      * @return true if this PFG changed as a result of the call,
      * otherwise false.
      */
-    boolean addEdge(Pointer source, Pointer target) {
-        return successors.put(source, target);
+    boolean addEdge(Pointer source, Pointer target, @Nullable TypeFilter filter) {
+        PointerFlowEdge edge = new PointerFlowEdge(source, target, filter);
+        if (outEdges.put(source, edge)) {
+            if (inEdges != null) {
+                inEdges.put(target, edge);
+            }
+            return true;
+        }
+        return false;
     }
 
     /**
-     * @return successors of given pointer in the PFG.
+     * Removes the edge (source -> target) from this PFG if it is present.
+     * This method requires in edges being tracked.
      */
-    Set<Pointer> getSuccsOf(Pointer pointer) {
-        return successors.get(pointer);
+    void removeEdge(Pointer source, Pointer target) {
+        for (PointerFlowEdge edge : outEdges.get(source)) {
+            if (edge.target().equals(target)) {
+                removeEdge(edge);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Removes given edge from this PFG.
+     * This method requires in edges being tracked.
+     */
+    void removeEdge(PointerFlowEdge edge) {
+        outEdges.remove(edge.source(), edge);
+        getInEdgesTracked().remove(edge.target(), edge);
+    }
+
+    /**
+     * @return out edges of given pointer in the PFG.
+     */
+    Set<PointerFlowEdge> getOutEdgesOf(Pointer pointer) {
+        return outEdges.get(pointer);
+    }
+
+    /**
+     * @return in edges of given pointer in the PFG.
+     * This method requires in edges being tracked.
+     */
+    Set<PointerFlowEdge> getInEdgesOf(Pointer pointer) {
+        return getInEdgesTracked().get(pointer);
+    }
+
+    private MultiMap<Pointer, PointerFlowEdge> getInEdgesTracked() {
+        if (inEdges == null) {
+            throw new UnsupportedOperationException(
+                    "In edges of PFG are not tracked");
+        }
+        return inEdges;
     }
 }
@@ -27,9 +27,11 @@ import org.apache.logging.log4j.Logger;
 import pascal.taie.World;
 import pascal.taie.analysis.graph.callgraph.CallGraphs;
 import pascal.taie.analysis.graph.callgraph.CallKind;
+import pascal.taie.analysis.graph.callgraph.DispatchCache;
 import pascal.taie.analysis.graph.callgraph.Edge;
 import pascal.taie.analysis.pta.PointerAnalysisResult;
 import pascal.taie.analysis.pta.PointerAnalysisResultImpl;
+import pascal.taie.analysis.pta.SolverMonitor;
 import pascal.taie.analysis.pta.core.cs.CSCallGraph;
 import pascal.taie.analysis.pta.core.cs.context.Context;
 import pascal.taie.analysis.pta.core.cs.element.ArrayIndex;
@@ -38,6 +40,7 @@ import pascal.taie.analysis.pta.core.cs.element.CSManager;
 import pascal.taie.analysis.pta.core.cs.element.CSMethod;
 import pascal.taie.analysis.pta.core.cs.element.CSObj;
 import pascal.taie.analysis.pta.core.cs.element.CSVar;
+import pascal.taie.analysis.pta.core.cs.element.ConcurrentCSManager;
 import pascal.taie.analysis.pta.core.cs.element.InstanceField;
 import pascal.taie.analysis.pta.core.cs.element.MapBasedCSManager;
 import pascal.taie.analysis.pta.core.cs.element.Pointer;
@@ -49,19 +52,40 @@ import pascal.taie.analysis.pta.plugin.taint.TaintAnalysiss;
 import pascal.taie.analysis.pta.pts.PointsToSet;
 import pascal.taie.analysis.pta.pts.PointsToSetFactory;
 import pascal.taie.config.AnalysisOptions;
+import pascal.taie.config.ConfigException;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.InstanceFieldAccess;
 import pascal.taie.ir.exp.InvokeExp;
+import pascal.taie.ir.exp.InvokeInstanceExp;
 import pascal.taie.ir.exp.Var;
 import pascal.taie.ir.stmt.Copy;
+import pascal.taie.ir.stmt.FieldStmt;
 import pascal.taie.ir.stmt.Invoke;
 import pascal.taie.ir.stmt.LoadArray;
 import pascal.taie.ir.stmt.LoadField;
 import pascal.taie.ir.stmt.New;
+import pascal.taie.ir.stmt.Stmt;
 import pascal.taie.ir.stmt.StmtVisitor;
 import pascal.taie.ir.stmt.StoreArray;
 import pascal.taie.ir.stmt.StoreField;
 import pascal.taie.language.classes.JField;
 import pascal.taie.language.classes.JMethod;
 import pascal.taie.language.type.Type;
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Sets;
+
+import javax.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 public class Solver {
 
@@ -73,29 +97,136 @@ public class Solver {
 
     private final ContextSelector contextSelector;
 
+    /**
+     * Number of threads used to process work-list entries.
+     * The solver runs sequentially if this number is 1.
+     */
+    private final int threads;
+
+    /**
+     * Guards the accesses to the structures of {@link World}, e.g., IR builder
+     * and dispatch table of class hierarchy, and {@link #heapModel},
+     * which are not thread-safe.
+     */
+    private final Object worldLock = new Object();
+
+    /**
+     * Memoizes the results of virtual dispatch. Cache misses are
+     * resolved under {@link #worldLock}.
+     */
+    private final DispatchCache dispatchCache = new DispatchCache((type, callSite) -> {
+        synchronized (worldLock) {
+            return CallGraphs.resolveCallee(type, callSite);
+        }
+    });
+
     private CSManager csManager;
 
     private CSCallGraph callGraph;
 
     private PointerFlowGraph pointerFlowGraph;
 
+    /**
+     * Factory of the type filters on PFG edges, or null if
+     * type filtering is disabled.
+     */
+    private TypeFilter.Factory typeFilters;
+
     private WorkList workList;
 
+    /**
+     * Whether the analysis is stopped before reaching the fixed point.
+     */
+    private volatile boolean stopped;
+
     private TaintAnalysiss taintAnalysis;
 
+    private PointerAnalysisMetrics metrics;
+
+    /**
+     * Monitor of the progress of this solver, or null if monitoring is disabled.
+     */
+    private SolverMonitor monitor;
+
+    /**
+     * Distinct contexts of the reachable CS methods and the CS objects
+     * of this solver, or null if monitoring is disabled.
+     */
+    private Set<Context> contexts;
+
     private PointerAnalysisResult result;
 
+    /**
+     * Whether taint analysis is enabled.
+     */
+    private final boolean taintEnabled;
+
+    /**
+     * Whether incremental mode is enabled, i.e., the results can be
+     * updated by {@link #update(Map, Map)}.
+     */
+    private final boolean incremental;
+
+    /**
+     * Statements deleted by incremental updates.
+     */
+    private final Set<Stmt> deletedStmts = Sets.newSet();
+
+    /**
+     * Statements added by incremental updates. An added statement is kept
+     * here after it is deleted (i.e., it is also in {@link #deletedStmts}),
+     * so that it can be revived as the statements of IR.
+     */
+    private final MultiMap<JMethod, Stmt> addedStmts = Maps.newMultiMap();
+
     Solver(AnalysisOptions options, HeapModel heapModel,
            ContextSelector contextSelector) {
+        this(options, heapModel, contextSelector, true);
+    }
+
+    /**
+     * @param enableTaint whether to enable taint analysis if it is
+     *                    configured. This is false for pre-analyses.
+     */
+    Solver(AnalysisOptions options, HeapModel heapModel,
+           ContextSelector contextSelector, boolean enableTaint) {
         this.options = options;
         this.heapModel = heapModel;
         this.contextSelector = contextSelector;
+        this.threads = getThreads(options);
+        this.taintEnabled = enableTaint &&
+                options.getString("taint-config") != null;
+        this.incremental = options.getBooleanOrDefault("incremental", false);
+        if (incremental && threads > 1) {
+            throw new ConfigException(
+                    "Incremental mode does not support parallel analysis");
+        }
+    }
+
+    private static int getThreads(AnalysisOptions options) {
+        Object value = options.get("threads");
+        if (value == null) {
+            return 1;
+        }
+        int threads = ((Number) value).intValue();
+        if (threads <= 0) {
+            // non-positive number means using all available processors
+            threads = Runtime.getRuntime().availableProcessors();
+        }
+        return threads;
     }
 
     public AnalysisOptions getOptions() {
         return options;
     }
 
+    /**
+     * @return the number of threads used by this solver.
+     */
+    public int getThreads() {
+        return threads;
+    }
+
     public ContextSelector getContextSelector() {
         return contextSelector;
     }
@@ -104,18 +235,57 @@ public class Solver {
         return csManager;
     }
 
+    /**
+     * @return the metrics of this solver, which are available once
+     * the solver is initialized, and can be polled while it is running.
+     */
+    public PointerAnalysisMetrics getMetrics() {
+        return metrics;
+    }
+
     void solve() {
         initialize();
-        analyze();
-        taintAnalysis.onFinish();
+        if (monitor != null) {
+            monitor.start();
+        }
+        try {
+            analyze();
+        } finally {
+            if (monitor != null) {
+                monitor.stop();
+            }
+        }
+        if (taintAnalysis != null) {
+            taintAnalysis.onFinish();
+        }
     }
 
     private void initialize() {
-        csManager = new MapBasedCSManager();
-        callGraph = new CSCallGraph(csManager);
-        pointerFlowGraph = new PointerFlowGraph();
-        workList = new WorkList();
-        taintAnalysis = new TaintAnalysiss(this);
+        if (threads > 1) {
+            logger.info("Parallel pointer analysis with {} threads", threads);
+            csManager = new ConcurrentCSManager();
+            callGraph = new CSCallGraph(csManager);
+            pointerFlowGraph = new PointerFlowGraph(true, false);
+            workList = new ParallelWorkList(threads, this::processEntry);
+        } else {
+            csManager = new MapBasedCSManager();
+            callGraph = new CSCallGraph(csManager);
+            pointerFlowGraph = new PointerFlowGraph(false, incremental);
+            workList = new WorkList();
+        }
+        metrics = new PointerAnalysisMetrics(callGraph);
+        monitor = SolverMonitor.make(options,
+                "cspta-" + contextSelector.getClass().getSimpleName(),
+                workList::size, callGraph::getNumberOfMethods,
+                () -> contexts.size());
+        // count contexts only for monitoring, as it costs memory
+        contexts = monitor != null ? Sets.newConcurrentSet() : null;
+        if (options.getBooleanOrDefault("type-filter", false)) {
+            typeFilters = new TypeFilter.Factory(World.get().getTypeSystem());
+        }
+        if (taintEnabled) {
+            taintAnalysis = new TaintAnalysiss(this);
+        }
         // process program entry, i.e., main method
         Context defContext = contextSelector.getEmptyContext();
         JMethod main = World.get().getMainMethod();
@@ -128,7 +298,48 @@ public class Solver {
      * Processes new reachable context-sensitive method.
      */
     private void addReachable(CSMethod csMethod) {
-        // TODO - finish me
+        // build IR before adding the method to call graph, which
+        // also needs the IR to collect the call sites in the method
+        IR ir = getIR(csMethod.getMethod());
+        if (callGraph.addReachableMethod(csMethod)) {
+            countContext(csMethod.getContext());
+            StmtProcessor stmtProcessor = new StmtProcessor(csMethod);
+            getStmts(csMethod.getMethod(), ir)
+                    .forEach(stmt -> stmt.accept(stmtProcessor));
+        }
+    }
+
+    private void countContext(Context context) {
+        if (contexts != null) {
+            contexts.add(context);
+        }
+    }
+
+    /**
+     * @return the statements of given method with the incremental
+     * updates applied.
+     */
+    private List<Stmt> getStmts(JMethod method, IR ir) {
+        if (deletedStmts.isEmpty() && addedStmts.isEmpty()) {
+            return ir.getStmts();
+        }
+        List<Stmt> stmts = new ArrayList<>();
+        Consumer<Stmt> addIfLive = stmt -> {
+            if (isLive(stmt)) {
+                stmts.add(stmt);
+            }
+        };
+        ir.forEach(addIfLive);
+        addedStmts.get(method).forEach(addIfLive);
+        return stmts;
+    }
+
+    /**
+     * @return false if given statement has been deleted by incremental
+     * updates, otherwise true.
+     */
+    private boolean isLive(Stmt stmt) {
+        return deletedStmts.isEmpty() || !deletedStmts.contains(stmt);
     }
 
     /**
@@ -145,22 +356,199 @@ public class Solver {
             this.context = csMethod.getContext();
         }
 
-        // TODO - if you choose to implement addReachable()
-        //  via visitor pattern, then finish me
+        @Override
+        public Void visit(New stmt) {
+            Obj obj = getObj(stmt);
+            Context heapContext = contextSelector.selectHeapContext(csMethod, obj);
+            CSObj csObj = csManager.getCSObj(heapContext, obj);
+            countContext(heapContext);
+            workList.addEntry(csManager.getCSVar(context, stmt.getLValue()),
+                    PointsToSetFactory.make(csObj));
+            return null;
+        }
+
+        @Override
+        public Void visit(Copy stmt) {
+            addPFGEdge(csManager.getCSVar(context, stmt.getRValue()),
+                    csManager.getCSVar(context, stmt.getLValue()));
+            return null;
+        }
+
+        @Override
+        public Void visit(LoadField stmt) {
+            if (stmt.isStatic()) {
+                JField field = resolveField(stmt);
+                addPFGEdge(csManager.getStaticField(field),
+                        csManager.getCSVar(context, stmt.getLValue()));
+            }
+            return null;
+        }
+
+        @Override
+        public Void visit(StoreField stmt) {
+            if (stmt.isStatic()) {
+                JField field = resolveField(stmt);
+                addPFGEdge(csManager.getCSVar(context, stmt.getRValue()),
+                        csManager.getStaticField(field));
+            }
+            return null;
+        }
+
+        @Override
+        public Void visit(Invoke stmt) {
+            if (stmt.isStatic()) {
+                JMethod callee = resolveCallee(null, stmt);
+                if (callee != null) {
+                    CSCallSite csCallSite = csManager.getCSCallSite(context, stmt);
+                    Context calleeContext = contextSelector.selectContext(csCallSite, callee);
+                    processCallEdge(csCallSite,
+                            csManager.getCSMethod(calleeContext, callee));
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Adds the objects of given points-to set to the points-to set
+     * of the pointer, and propagates them.
+     */
+    public void addPointsTo(Pointer pointer, PointsToSet pts) {
+        if (!pts.isEmpty()) {
+            workList.addEntry(pointer, pts);
+        }
+    }
+
+    /**
+     * Applies the action to each PFG successor of given pointer, with
+     * the objects of pts which can flow to the successor.
+     */
+    public void forEachPFGSucc(Pointer pointer, PointsToSet pts,
+                               BiConsumer<Pointer, PointsToSet> action) {
+        pointerFlowGraph.getOutEdgesOf(pointer).forEach(edge -> {
+            PointsToSet flow = edge.filter() != null ?
+                    edge.filter().apply(pts) : pts;
+            if (!flow.isEmpty()) {
+                action.accept(edge.target(), flow);
+            }
+        });
     }
 
     /**
      * Adds an edge "source -> target" to the PFG.
      */
     private void addPFGEdge(Pointer source, Pointer target) {
-        // TODO - finish me
+        TypeFilter filter = typeFilters != null ?
+                typeFilters.getFilter(source, target) : null;
+        if (pointerFlowGraph.addEdge(source, target, filter)) {
+            if (monitor != null) {
+                monitor.onPFGEdgeAdded();
+            }
+            if (taintAnalysis != null && taintAnalysis.isSparse()) {
+                PointsToSet taints = taintAnalysis.getTaints(source);
+                if (!taints.isEmpty()) {
+                    taintAnalysis.addTaints(target,
+                            filter != null ? filter.apply(taints) : taints);
+                }
+            }
+            PointsToSet pts = source.getPointsToSet();
+            if (!pts.isEmpty()) {
+                addFilteredEntry(target, pts, filter);
+            }
+        }
     }
 
     /**
      * Processes work-list entries until the work-list is empty.
      */
     private void analyze() {
-        // TODO - finish me
+        if (workList instanceof ParallelWorkList parallelWorkList) {
+            // entries are processed by the worker threads as soon as
+            // they are added, so we just wait for all of them to finish
+            parallelWorkList.awaitCompletion();
+        } else {
+            while (!stopped && !workList.isEmpty()) {
+                processEntry(workList.pollEntry());
+            }
+        }
+    }
+
+    /**
+     * Stops the analysis early. The remaining work-list entries are
+     * dropped, thus the result is an under-approximation.
+     */
+    public void stop() {
+        stopped = true;
+    }
+
+    /**
+     * Processes a single work-list entry. In parallel mode, this method
+     * may be called by multiple threads simultaneously.
+     */
+    private void processEntry(WorkList.Entry entry) {
+        if (stopped) {
+            return;
+        }
+        Pointer pointer = entry.pointer();
+        PointsToSet delta;
+        if (monitor != null) {
+            monitor.onEntryProcessed();
+            long start = System.nanoTime();
+            delta = propagate(pointer, entry.pointsToSet());
+            monitor.onPropagated(delta.size(), System.nanoTime() - start);
+        } else {
+            delta = propagate(pointer, entry.pointsToSet());
+        }
+        if (taintAnalysis != null && !taintAnalysis.isSparse()
+                && pointer instanceof CSVar csVar
+                && !delta.isEmpty()) {
+            taintAnalysis.onNewPointsToSet(csVar, delta);
+        }
+        if (pointer instanceof CSVar csVar && !delta.isEmpty()) {
+            for (CSObj obj : delta) {
+                processInstanceStmts(csVar, obj);
+            }
+        }
+    }
+
+    /**
+     * Processes the field/array accesses and the instance calls on
+     * given variable when it points to a new object.
+     */
+    private void processInstanceStmts(CSVar csVar, CSObj obj) {
+        Var var = csVar.getVar();
+        Context context = csVar.getContext();
+        for (StoreField stmt : var.getStoreFields()) {
+            if (isLive(stmt)) {
+                addPFGEdge(csManager.getCSVar(context, stmt.getRValue()),
+                        csManager.getInstanceField(obj, resolveField(stmt)));
+            }
+        }
+        for (LoadField stmt : var.getLoadFields()) {
+            if (isLive(stmt)) {
+                addPFGEdge(csManager.getInstanceField(obj, resolveField(stmt)),
+                        csManager.getCSVar(context, stmt.getLValue()));
+            }
+        }
+        for (StoreArray stmt : var.getStoreArrays()) {
+            if (isLive(stmt)) {
+                addPFGEdge(csManager.getCSVar(context, stmt.getRValue()),
+                        csManager.getArrayIndex(obj));
+            }
+        }
+        for (LoadArray stmt : var.getLoadArrays()) {
+            if (isLive(stmt)) {
+                addPFGEdge(csManager.getArrayIndex(obj),
+                        csManager.getCSVar(context, stmt.getLValue()));
+            }
+        }
+        if (monitor != null) {
+            long start = System.nanoTime();
+            processCall(csVar, obj);
+            monitor.onCallProcessed(System.nanoTime() - start);
+        } else {
+            processCall(csVar, obj);
+        }
     }
 
     /**
@@ -168,8 +556,33 @@ public class Solver {
      * returns the difference set of pointsToSet and pt(pointer).
      */
     private PointsToSet propagate(Pointer pointer, PointsToSet pointsToSet) {
-        // TODO - finish me
-        return null;
+        PointsToSet delta = PointsToSetFactory.make();
+        PointsToSet pts = pointer.getPointsToSet();
+        // addObject() of the points-to set is atomic in parallel mode,
+        // thus each new object is contained in exactly one delta set
+        pointsToSet.forEach(obj -> {
+            if (pts.addObject(obj)) {
+                delta.addObject(obj);
+            }
+        });
+        if (!delta.isEmpty()) {
+            metrics.addPointsTo(pointer, delta.size());
+            pointerFlowGraph.getOutEdgesOf(pointer).forEach(edge ->
+                    addFilteredEntry(edge.target(), delta, edge.filter()));
+        }
+        return delta;
+    }
+
+    /**
+     * Adds an entry to the work-list, where the objects of pointsToSet
+     * that cannot be held by pointer are dropped by filter (if present).
+     */
+    private void addFilteredEntry(Pointer pointer, PointsToSet pointsToSet,
+                                  @Nullable TypeFilter filter) {
+        PointsToSet pts = filter != null ? filter.apply(pointsToSet) : pointsToSet;
+        if (!pts.isEmpty()) {
+            workList.addEntry(pointer, pts);
+        }
     }
 
     /**
@@ -179,7 +592,56 @@ public class Solver {
      * @param recvObj set of new discovered objects pointed by the variable.
      */
     private void processCall(CSVar recv, CSObj recvObj) {
-        // TODO - finish me
+        Context context = recv.getContext();
+        for (Invoke callSite : recv.getVar().getInvokes()) {
+            if (!isLive(callSite)) {
+                continue;
+            }
+            JMethod callee = resolveCallee(recvObj, callSite);
+            if (callee == null) {
+                continue;
+            }
+            CSCallSite csCallSite = csManager.getCSCallSite(context, callSite);
+            Context calleeContext = contextSelector.selectContext(
+                    csCallSite, recvObj, callee);
+            CSMethod csCallee = csManager.getCSMethod(calleeContext, callee);
+            Var thisVar = getIR(callee).getThis();
+            workList.addEntry(csManager.getCSVar(calleeContext, thisVar),
+                    PointsToSetFactory.make(recvObj));
+            processCallEdge(csCallSite, csCallee);
+        }
+    }
+
+    /**
+     * Adds a call edge "csCallSite -> csCallee" to the call graph, and
+     * adds the PFG edges for parameter passing and return values if the
+     * call graph changed.
+     */
+    private void processCallEdge(CSCallSite csCallSite, CSMethod csCallee) {
+        Invoke callSite = csCallSite.getCallSite();
+        CallKind kind = CallGraphs.getCallKind(callSite);
+        Edge<CSCallSite, CSMethod> edge = new Edge<>(kind, csCallSite, csCallee);
+        if (callGraph.addEdge(edge)) {
+            addReachable(csCallee);
+            Context callerContext = csCallSite.getContext();
+            Context calleeContext = csCallee.getContext();
+            InvokeExp invokeExp = callSite.getInvokeExp();
+            IR calleeIR = getIR(csCallee.getMethod());
+            List<Var> params = calleeIR.getParams();
+            for (int i = 0; i < params.size(); ++i) {
+                addPFGEdge(csManager.getCSVar(callerContext, invokeExp.getArg(i)),
+                        csManager.getCSVar(calleeContext, params.get(i)));
+            }
+            Var lhs = callSite.getLValue();
+            if (lhs != null) {
+                CSVar csLHS = csManager.getCSVar(callerContext, lhs);
+                calleeIR.getReturnVars().forEach(ret ->
+                        addPFGEdge(csManager.getCSVar(calleeContext, ret), csLHS));
+            }
+            if (taintAnalysis != null) {
+                taintAnalysis.onNewCallEdge(edge);
+            }
+        }
     }
 
     /**
@@ -192,12 +654,398 @@ public class Solver {
      */
     private JMethod resolveCallee(CSObj recv, Invoke callSite) {
         Type type = recv != null ? recv.getObject().getType() : null;
-        return CallGraphs.resolveCallee(type, callSite);
+        return dispatch(type, callSite);
+    }
+
+    /**
+     * Resolves the callee of a call site with the type of receiver object.
+     * If the callSite is static, type is ignored (i.e., can be null).
+     */
+    public JMethod dispatch(Type type, Invoke callSite) {
+        return dispatchCache.resolveCallee(type, callSite);
+    }
+
+    /**
+     * @return IR of given method. IR is built lazily, which is guarded
+     * by {@link #worldLock} in parallel mode.
+     */
+    private IR getIR(JMethod method) {
+        synchronized (worldLock) {
+            return method.getIR();
+        }
+    }
+
+    private Obj getObj(New allocSite) {
+        synchronized (worldLock) {
+            return heapModel.getObj(allocSite);
+        }
+    }
+
+    private JField resolveField(FieldStmt<?, ?> stmt) {
+        synchronized (worldLock) {
+            return stmt.getFieldRef().resolve();
+        }
+    }
+
+    /**
+     * Incrementally updates the results of this solver, which has been
+     * solved, with respect to the changes of the program. The results are
+     * the same as re-analyzing the changed program from scratch.
+     * <p>
+     * Added statements are propagated directly. Deleted statements are
+     * handled by invalidation: the results that may be derived from
+     * the deleted statements (i.e., reachable from them in PFG and
+     * call graph) are removed, and then re-derived from the remaining
+     * results. Whole methods can be deleted by deleting all their
+     * statements. The changes of class hierarchy are not supported.
+     *
+     * @param added   map from methods to the statements added to them.
+     * @param deleted map from methods to the statements deleted from them.
+     * @return the updated results.
+     */
+    public PointerAnalysisResult update(Map<JMethod, ? extends Collection<Stmt>> added,
+                                        Map<JMethod, ? extends Collection<Stmt>> deleted) {
+        if (!incremental) {
+            throw new AnalysisException("Incremental mode is not enabled");
+        }
+        if (!deleted.isEmpty()) {
+            MultiMap<JMethod, CSMethod> csMethods = getReachableCSMethods();
+            Invalidation invalidation = new Invalidation();
+            deleted.forEach((method, stmts) -> stmts.forEach(stmt -> {
+                if (deletedStmts.add(stmt)) {
+                    csMethods.get(method).forEach(csMethod ->
+                            invalidation.deleteStmt(csMethod, stmt));
+                }
+            }));
+            invalidation.invalidate();
+            invalidation.rederive();
+        }
+        if (!added.isEmpty()) {
+            MultiMap<JMethod, CSMethod> csMethods = getReachableCSMethods();
+            added.forEach((method, stmts) -> stmts.forEach(stmt -> {
+                // deleted statements of IR are revived,
+                // and the others are new statements
+                if (!deletedStmts.remove(stmt) && addedStmts.put(method, stmt)) {
+                    registerStmt(stmt);
+                    if (stmt instanceof Invoke invoke) {
+                        callGraph.addInvoke(method, invoke);
+                    }
+                }
+                csMethods.get(method).forEach(csMethod -> {
+                    stmt.accept(new StmtProcessor(csMethod));
+                    Var base = getBase(stmt);
+                    if (base != null) {
+                        CSVar csBase = csManager.getCSVar(csMethod.getContext(), base);
+                        List.copyOf(csBase.getPointsToSet().getObjects())
+                                .forEach(obj -> processInstanceStmts(csBase, obj));
+                    }
+                });
+            }));
+        }
+        analyze();
+        result = null;
+        return getResult();
+    }
+
+    private MultiMap<JMethod, CSMethod> getReachableCSMethods() {
+        MultiMap<JMethod, CSMethod> csMethods = Maps.newMultiMap();
+        callGraph.reachableMethods().forEach(csMethod ->
+                csMethods.put(csMethod.getMethod(), csMethod));
+        return csMethods;
+    }
+
+    /**
+     * @return the base variable of field/array access or instance call,
+     * or null if given statement has no base variable.
+     */
+    @Nullable
+    private static Var getBase(Stmt stmt) {
+        if (stmt instanceof FieldStmt<?, ?> fieldStmt && !fieldStmt.isStatic()) {
+            return ((InstanceFieldAccess) fieldStmt.getFieldAccess()).getBase();
+        } else if (stmt instanceof LoadArray loadArray) {
+            return loadArray.getArrayAccess().getBase();
+        } else if (stmt instanceof StoreArray storeArray) {
+            return storeArray.getArrayAccess().getBase();
+        } else if (stmt instanceof Invoke invoke &&
+                invoke.getInvokeExp() instanceof InvokeInstanceExp invokeExp) {
+            return invokeExp.getBase();
+        }
+        return null;
+    }
+
+    /**
+     * Registers a new statement to its base variable, as IR builder does,
+     * so that it is processed when the variable points to new objects.
+     */
+    private static void registerStmt(Stmt stmt) {
+        Var base = getBase(stmt);
+        if (stmt instanceof LoadField load && base != null &&
+                !base.getLoadFields().contains(load)) {
+            base.addLoadField(load);
+        } else if (stmt instanceof StoreField store && base != null &&
+                !base.getStoreFields().contains(store)) {
+            base.addStoreField(store);
+        } else if (stmt instanceof LoadArray load &&
+                !base.getLoadArrays().contains(load)) {
+            base.addLoadArray(load);
+        } else if (stmt instanceof StoreArray store &&
+                !base.getStoreArrays().contains(store)) {
+            base.addStoreArray(store);
+        } else if (stmt instanceof Invoke invoke && base != null &&
+                !base.getInvokes().contains(invoke)) {
+            base.addInvoke(invoke);
+        }
+    }
+
+    /**
+     * Invalidates the results which may be derived from the deleted
+     * statements, and then re-derives them from the remaining results.
+     * The invalidation over-approximates the affected results by the
+     * reachability in PFG and call graph, i.e., the points-to sets of
+     * the pointers reachable from the deleted statements are cleared,
+     * the PFG edges and call edges depending on these points-to sets are
+     * removed, and the methods whose call edges are removed become
+     * unreachable. Then the remaining PFG edges into affected pointers,
+     * the remaining call edges into unreachable methods, and the
+     * statements of reachable methods with affected pointers are
+     * processed again to re-derive the results.
+     */
+    private class Invalidation {
+
+        private final Set<Pointer> affected = Sets.newSet();
+
+        private final Deque<Pointer> pending = new ArrayDeque<>();
+
+        private final Set<CSMethod> removedMethods = Sets.newSet();
+
+        private final List<Edge<CSCallSite, CSMethod>> removedEdges = new ArrayList<>();
+
+        private void deleteStmt(CSMethod csMethod, Stmt stmt) {
+            Context context = csMethod.getContext();
+            if (stmt instanceof New newStmt) {
+                affect(csManager.getCSVar(context, newStmt.getLValue()));
+            } else if (stmt instanceof Copy copy) {
+                removePFGEdge(csManager.getCSVar(context, copy.getRValue()),
+                        csManager.getCSVar(context, copy.getLValue()));
+            } else if (stmt instanceof LoadField load) {
+                CSVar lhs = csManager.getCSVar(context, load.getLValue());
+                JField field = resolveField(load);
+                if (load.isStatic()) {
+                    removePFGEdge(csManager.getStaticField(field), lhs);
+                } else {
+                    forEachBaseObj(context, load, obj -> removePFGEdge(
+                            csManager.getInstanceField(obj, field), lhs));
+                }
+            } else if (stmt instanceof StoreField store) {
+                CSVar rhs = csManager.getCSVar(context, store.getRValue());
+                JField field = resolveField(store);
+                if (store.isStatic()) {
+                    removePFGEdge(rhs, csManager.getStaticField(field));
+                } else {
+                    forEachBaseObj(context, store, obj -> removePFGEdge(
+                            rhs, csManager.getInstanceField(obj, field)));
+                }
+            } else if (stmt instanceof LoadArray load) {
+                CSVar lhs = csManager.getCSVar(context, load.getLValue());
+                forEachBaseObj(context, load, obj ->
+                        removePFGEdge(csManager.getArrayIndex(obj), lhs));
+            } else if (stmt instanceof StoreArray store) {
+                CSVar rhs = csManager.getCSVar(context, store.getRValue());
+                forEachBaseObj(context, store, obj ->
+                        removePFGEdge(rhs, csManager.getArrayIndex(obj)));
+            } else if (stmt instanceof Invoke invoke) {
+                removeCallEdges(csManager.getCSCallSite(context, invoke));
+            }
+        }
+
+        private void forEachBaseObj(Context context, Stmt stmt, Consumer<CSObj> action) {
+            csManager.getCSVar(context, getBase(stmt)).getPointsToSet().forEach(action);
+        }
+
+        private void affect(Pointer pointer) {
+            if (affected.add(pointer)) {
+                pending.add(pointer);
+            }
+        }
+
+        private void removePFGEdge(Pointer source, Pointer target) {
+            pointerFlowGraph.removeEdge(source, target);
+            affect(target);
+        }
+
+        private void removeCallEdges(CSCallSite csCallSite) {
+            List.copyOf(csCallSite.getEdges()).forEach(this::removeCallEdge);
+        }
+
+        private void removeCallEdge(Edge<CSCallSite, CSMethod> edge) {
+            if (!callGraph.removeEdge(edge)) {
+                return;
+            }
+            removedEdges.add(edge);
+            CSCallSite csCallSite = edge.getCallSite();
+            CSMethod csCallee = edge.getCallee();
+            Context callerContext = csCallSite.getContext();
+            Context calleeContext = csCallee.getContext();
+            Invoke callSite = csCallSite.getCallSite();
+            InvokeExp invokeExp = callSite.getInvokeExp();
+            IR calleeIR = getIR(csCallee.getMethod());
+            List<Var> params = calleeIR.getParams();
+            for (int i = 0; i < params.size(); ++i) {
+                removePFGEdge(csManager.getCSVar(callerContext, invokeExp.getArg(i)),
+                        csManager.getCSVar(calleeContext, params.get(i)));
+            }
+            Var lhs = callSite.getLValue();
+            if (lhs != null) {
+                CSVar csLHS = csManager.getCSVar(callerContext, lhs);
+                calleeIR.getReturnVars().forEach(ret ->
+                        removePFGEdge(csManager.getCSVar(calleeContext, ret), csLHS));
+            }
+            removeMethod(csCallee);
+        }
+
+        /**
+         * Makes given method unreachable, and removes all PFG edges and
+         * call edges of the method.
+         */
+        private void removeMethod(CSMethod csMethod) {
+            if (!removedMethods.add(csMethod)) {
+                return;
+            }
+            callGraph.removeReachableMethod(csMethod);
+            List.copyOf(csMethod.getEdges()).forEach(this::removeCallEdge);
+            Context context = csMethod.getContext();
+            JMethod method = csMethod.getMethod();
+            IR ir = getIR(method);
+            for (Var var : ir.getVars()) {
+                CSVar csVar = csManager.getCSVar(context, var);
+                affect(csVar);
+                for (PointerFlowEdge edge : List.copyOf(pointerFlowGraph.getOutEdgesOf(csVar))) {
+                    affect(edge.target());
+                    pointerFlowGraph.removeEdge(edge);
+                }
+                List.copyOf(pointerFlowGraph.getInEdgesOf(csVar))
+                        .forEach(pointerFlowGraph::removeEdge);
+            }
+            for (Stmt stmt : ir) {
+                if (stmt instanceof Invoke invoke) {
+                    removeCallEdges(csManager.getCSCallSite(context, invoke));
+                }
+            }
+            for (Stmt stmt : addedStmts.get(method)) {
+                if (stmt instanceof Invoke invoke) {
+                    removeCallEdges(csManager.getCSCallSite(context, invoke));
+                }
+            }
+        }
+
+        /**
+         * Computes the affected results, i.e., the closure of the pointers
+         * and methods affected by the deleted statements.
+         */
+        private void invalidate() {
+            while (!pending.isEmpty()) {
+                Pointer pointer = pending.poll();
+                pointerFlowGraph.getOutEdgesOf(pointer)
+                        .forEach(edge -> affect(edge.target()));
+                if (pointer instanceof CSVar csVar) {
+                    // the PFG edges and call edges which depend on
+                    // the points-to set of the variable
+                    Var var = csVar.getVar();
+                    Context context = csVar.getContext();
+                    for (CSObj obj : pointer.getPointsToSet()) {
+                        var.getStoreFields().forEach(stmt -> removePFGEdge(
+                                csManager.getCSVar(context, stmt.getRValue()),
+                                csManager.getInstanceField(obj, resolveField(stmt))));
+                        var.getLoadFields().forEach(stmt -> removePFGEdge(
+                                csManager.getInstanceField(obj, resolveField(stmt)),
+                                csManager.getCSVar(context, stmt.getLValue())));
+                        var.getStoreArrays().forEach(stmt -> removePFGEdge(
+                                csManager.getCSVar(context, stmt.getRValue()),
+                                csManager.getArrayIndex(obj)));
+                        var.getLoadArrays().forEach(stmt -> removePFGEdge(
+                                csManager.getArrayIndex(obj),
+                                csManager.getCSVar(context, stmt.getLValue())));
+                    }
+                    var.getInvokes().forEach(invoke ->
+                            removeCallEdges(csManager.getCSCallSite(context, invoke)));
+                }
+            }
+            logger.info("Incremental update: {} affected pointers, {} removed methods",
+                    affected.size(), removedMethods.size());
+        }
+
+        /**
+         * Re-derives the affected results from the remaining results.
+         */
+        private void rederive() {
+            affected.forEach(p -> {
+                metrics.addPointsTo(p, -p.getPointsToSet().size());
+                p.setPointsToSet(PointsToSetFactory.make());
+            });
+            // the statements of remaining methods with affected variables
+            Set<CSMethod> revisited = Sets.newSet();
+            for (Pointer pointer : affected) {
+                if (pointer instanceof CSVar csVar) {
+                    CSMethod csMethod = csManager.getCSMethod(
+                            csVar.getContext(), csVar.getVar().getMethod());
+                    if (!removedMethods.contains(csMethod) &&
+                            callGraph.contains(csMethod) &&
+                            revisited.add(csMethod)) {
+                        StmtProcessor stmtProcessor = new StmtProcessor(csMethod);
+                        getStmts(csMethod.getMethod(), getIR(csMethod.getMethod()))
+                                .forEach(stmt -> stmt.accept(stmtProcessor));
+                    }
+                }
+            }
+            // the entry methods and the remaining call edges
+            callGraph.entryMethods()
+                    .filter(removedMethods::contains)
+                    .toList()
+                    .forEach(Solver.this::addReachable);
+            Set<CSVar> receivers = Sets.newSet();
+            for (Edge<CSCallSite, CSMethod> edge : removedEdges) {
+                CSCallSite csCallSite = edge.getCallSite();
+                Invoke callSite = csCallSite.getCallSite();
+                CSMethod container = csCallSite.getContainer();
+                if (!isLive(callSite) || container == null ||
+                        removedMethods.contains(container)) {
+                    // such call edges are re-derived (if necessary)
+                    // when the container becomes reachable again
+                    continue;
+                }
+                if (callSite.isStatic()) {
+                    processCallEdge(csCallSite, edge.getCallee());
+                } else {
+                    CSVar recv = csManager.getCSVar(
+                            csCallSite.getContext(), getBase(callSite));
+                    if (!affected.contains(recv)) {
+                        receivers.add(recv);
+                    }
+                }
+            }
+            receivers.forEach(recv -> List.copyOf(recv.getPointsToSet().getObjects())
+                    .forEach(obj -> processCall(recv, obj)));
+            // the remaining PFG edges into affected pointers
+            for (Pointer pointer : affected) {
+                for (PointerFlowEdge edge : pointerFlowGraph.getInEdgesOf(pointer)) {
+                    PointsToSet pts = edge.source().getPointsToSet();
+                    if (!affected.contains(edge.source()) && !pts.isEmpty()) {
+                        addFilteredEntry(pointer, pts, edge.filter());
+                    }
+                }
+            }
+        }
     }
 
     public PointerAnalysisResult getResult() {
         if (result == null) {
             result = new PointerAnalysisResultImpl(csManager, callGraph);
+            result.storeResult(DispatchCache.class.getName(), dispatchCache);
+            result.storeResult(PointerAnalysisMetrics.class.getName(), metrics);
+            if (incremental) {
+                // clients retrieve the solver from the result to update it
+                result.storeResult(Solver.class.getName(), this);
+            }
         }
         return result;
     }
@@ -0,0 +1,124 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.cs;
+
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.pts.PointsToSet;
+import pascal.taie.analysis.pta.pts.PointsToSetFactory;
+import pascal.taie.language.classes.ClassNames;
+import pascal.taie.language.type.ReferenceType;
+import pascal.taie.language.type.Type;
+import pascal.taie.language.type.TypeSystem;
+import pascal.taie.util.collection.Maps;
+
+import javax.annotation.Nullable;
+import java.util.Map;
+
+/**
+ * Type filter on PFG edges, which only allows the objects whose types
+ * are subtypes of the type of the target pointer to pass through the edge.
+ * <p>
+ * The results of subtype checks are cached in a concurrent map, so that
+ * each object type is checked (almost always) once for each filter, and
+ * the look-ups of the cache on propagation do not take any lock.
+ */
+class TypeFilter {
+
+    private final Type type;
+
+    private final TypeSystem typeSystem;
+
+    /**
+     * Map from object types to whether they are subtypes of {@link #type}.
+     */
+    private final Map<Type, Boolean> compatible = Maps.newConcurrentMap();
+
+    private TypeFilter(Type type, TypeSystem typeSystem) {
+        this.type = type;
+        this.typeSystem = typeSystem;
+    }
+
+    /**
+     * @return the objects in pts that pass this filter. If all objects
+     * pass, pts itself is returned.
+     */
+    PointsToSet apply(PointsToSet pts) {
+        if (pts.objects().allMatch(this::isCompatible)) {
+            // common case, no need to copy pts
+            return pts;
+        }
+        PointsToSet result = PointsToSetFactory.make();
+        pts.forEach(obj -> {
+            if (isCompatible(obj)) {
+                result.addObject(obj);
+            }
+        });
+        return result;
+    }
+
+    private boolean isCompatible(CSObj obj) {
+        return isCompatible(obj.getObject().getType());
+    }
+
+    private boolean isCompatible(Type objType) {
+        Boolean result = compatible.get(objType);
+        if (result == null) {
+            // subtype checks are pure, thus racing threads may compute
+            // the same result without locking
+            result = typeSystem.isSubtype(type, objType);
+            compatible.put(objType, result);
+        }
+        return result;
+    }
+
+    /**
+     * Creates the type filters. Filters are canonicalized by their types.
+     */
+    static class Factory {
+
+        private final TypeSystem typeSystem;
+
+        private final Map<Type, TypeFilter> filters = Maps.newConcurrentMap();
+
+        Factory(TypeSystem typeSystem) {
+            this.typeSystem = typeSystem;
+        }
+
+        /**
+         * @return the type filter for edge source -> target, or null if
+         * no objects can be filtered out by the filter, i.e., the type of
+         * source is a subtype of the type of target.
+         */
+        @Nullable
+        TypeFilter getFilter(Pointer source, Pointer target) {
+            Type type = target.getType();
+            if (!(type instanceof ReferenceType) ||
+                    type.getName().equals(ClassNames.OBJECT) ||
+                    typeSystem.isSubtype(type, source.getType())) {
+                return null;
+            }
+            return filters.computeIfAbsent(type, t -> new TypeFilter(t, typeSystem));
+        }
+    }
+}
@@ -57,6 +57,13 @@ class WorkList {
         return entries.isEmpty();
     }
 
+    /**
+     * @return the number of pending entries in the work list.
+     */
+    int size() {
+        return entries.size();
+    }
+
     /**
      * Represents entries in the work list.
      * Each entry consists of a pointer and a points-to set.
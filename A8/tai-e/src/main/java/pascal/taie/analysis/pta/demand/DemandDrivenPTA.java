@@ -0,0 +1,453 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.demand;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.core.heap.HeapModel;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.InstanceFieldAccess;
+import pascal.taie.ir.exp.InvokeExp;
+import pascal.taie.ir.exp.InvokeInstanceExp;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Copy;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.LoadArray;
+import pascal.taie.ir.stmt.LoadField;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.ir.stmt.StoreArray;
+import pascal.taie.ir.stmt.StoreField;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Sets;
+
+import javax.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Demand-driven points-to analysis, which computes the points-to sets
+ * of the queried variables only.
+ * <p>
+ * This analysis is context-insensitive and field-sensitive, and it is
+ * formulated as a CFL-reachability problem over the pointer assignments
+ * of the IR (New, Copy, field/array loads and stores, and the
+ * parameter/return passing of the call edges in a given call graph).
+ * Like {@link pascal.taie.analysis.pta.cs.Solver}, it does not propagate
+ * objects through casts, so that the queries answered within the budget
+ * and the ones answered by the fallback have the same semantics.
+ * A query for pt(v) traverses the assignments backward from v; the loads
+ * and stores of the same field on aliased bases are matched like balanced
+ * parentheses by a field stack, where the aliases are found by traversing
+ * forward from the allocation sites.
+ * <p>
+ * Each query is bounded by a budget of traversal steps; a query which
+ * exceeds the budget is answered by the exhaustive pointer analysis
+ * given by fallback, which is run at most once, and it should be
+ * context-insensitive as this analysis. Answered queries are cached.
+ */
+public class DemandDrivenPTA {
+
+    private static final Logger logger = LogManager.getLogger(DemandDrivenPTA.class);
+
+    /**
+     * Pseudo field representing the elements of arrays.
+     */
+    private static final Object ARRAY_FIELD = "[*]";
+
+    private final CallGraph<Invoke, JMethod> callGraph;
+
+    private final HeapModel heapModel;
+
+    /**
+     * Maximum number of traversal steps of each query.
+     */
+    private final int budget;
+
+    private final Supplier<PointerAnalysisResult> fallback;
+
+    private PointerAnalysisResult fallbackResult;
+
+    private final Map<Var, Set<Obj>> cache = Maps.newMap();
+
+    // indexes of the pointer assignments of reachable methods
+
+    /**
+     * Map from variables to the statements which define them.
+     */
+    private final MultiMap<Var, Stmt> defs = Maps.newMultiMap();
+
+    /**
+     * Map from variables to the Copy/StoreField/StoreArray statements
+     * whose right-hand side are the variables.
+     */
+    private final MultiMap<Var, Stmt> uses = Maps.newMultiMap();
+
+    /**
+     * Map from variables to the invocations which use them as arguments
+     * (or receivers, with index -1).
+     */
+    private final MultiMap<Var, Arg> args = Maps.newMultiMap();
+
+    /**
+     * Map from parameters (and this variables, with index -1) to
+     * their indexes.
+     */
+    private final Map<Var, Integer> paramIndexes = Maps.newMap();
+
+    private final Set<Var> returnVars = Sets.newSet();
+
+    private final MultiMap<JField, StoreField> staticStores = Maps.newMultiMap();
+
+    private final MultiMap<JField, LoadField> staticLoads = Maps.newMultiMap();
+
+    private int queries;
+
+    private int cacheHits;
+
+    private int fallbacks;
+
+    /**
+     * @param callGraph call graph used to resolve the parameter/return
+     *                  passing, e.g., built by CHA.
+     * @param heapModel heap model which provides the abstract objects.
+     * @param budget    maximum number of traversal steps of each query.
+     * @param fallback  supplier of the result of context-insensitive
+     *                  exhaustive pointer analysis, which is invoked
+     *                  at most once.
+     */
+    public DemandDrivenPTA(CallGraph<Invoke, JMethod> callGraph,
+                           HeapModel heapModel, int budget,
+                           Supplier<PointerAnalysisResult> fallback) {
+        this.callGraph = callGraph;
+        this.heapModel = heapModel;
+        this.budget = budget;
+        this.fallback = fallback;
+        callGraph.reachableMethods().forEach(this::buildIndexes);
+    }
+
+    private void buildIndexes(JMethod method) {
+        IR ir = method.getIR();
+        if (ir.getThis() != null) {
+            paramIndexes.put(ir.getThis(), -1);
+        }
+        for (int i = 0; i < ir.getParams().size(); ++i) {
+            paramIndexes.put(ir.getParam(i), i);
+        }
+        returnVars.addAll(ir.getReturnVars());
+        for (Stmt stmt : ir) {
+            if (stmt instanceof New newStmt) {
+                defs.put(newStmt.getLValue(), stmt);
+            } else if (stmt instanceof Copy copy) {
+                defs.put(copy.getLValue(), stmt);
+                uses.put(copy.getRValue(), stmt);
+            } else if (stmt instanceof LoadField load) {
+                if (load.isStatic()) {
+                    staticLoads.put(load.getFieldRef().resolve(), load);
+                }
+                defs.put(load.getLValue(), stmt);
+            } else if (stmt instanceof StoreField store) {
+                if (store.isStatic()) {
+                    staticStores.put(store.getFieldRef().resolve(), store);
+                }
+                uses.put(store.getRValue(), stmt);
+            } else if (stmt instanceof LoadArray load) {
+                defs.put(load.getLValue(), stmt);
+            } else if (stmt instanceof StoreArray store) {
+                uses.put(store.getRValue(), stmt);
+            } else if (stmt instanceof Invoke invoke) {
+                if (invoke.getResult() != null) {
+                    defs.put(invoke.getResult(), stmt);
+                }
+                InvokeExp invokeExp = invoke.getInvokeExp();
+                if (invokeExp instanceof InvokeInstanceExp instanceExp) {
+                    args.put(instanceExp.getBase(), new Arg(invoke, -1));
+                }
+                for (int i = 0; i < invokeExp.getArgCount(); ++i) {
+                    args.put(invokeExp.getArg(i), new Arg(invoke, i));
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the points-to set of given variable.
+     */
+    public Set<Obj> getPointsToSet(Var var) {
+        ++queries;
+        Set<Obj> result = cache.get(var);
+        if (result != null) {
+            ++cacheHits;
+            return result;
+        }
+        result = new Query(var).solve();
+        if (result == null) {
+            ++fallbacks;
+            if (fallbackResult == null) {
+                logger.info("Query for {} exceeds budget {}, running" +
+                        " exhaustive pointer analysis ...", var, budget);
+            }
+            result = getFallbackResult().getPointsToSet(var);
+        }
+        result = Collections.unmodifiableSet(result);
+        cache.put(var, result);
+        return result;
+    }
+
+    /**
+     * @return the result of the exhaustive pointer analysis given by
+     * fallback, which is run on the first call.
+     */
+    public PointerAnalysisResult getFallbackResult() {
+        if (fallbackResult == null) {
+            fallbackResult = fallback.get();
+        }
+        return fallbackResult;
+    }
+
+    /**
+     * @return number of queries (including the cache hits).
+     */
+    public int getNumberOfQueries() {
+        return queries;
+    }
+
+    /**
+     * @return number of queries answered by the cache.
+     */
+    public int getNumberOfCacheHits() {
+        return cacheHits;
+    }
+
+    /**
+     * @return number of queries answered by the exhaustive analysis.
+     */
+    public int getNumberOfFallbacks() {
+        return fallbacks;
+    }
+
+    /**
+     * Represents that a variable is used as the i-th argument
+     * (or the receiver if i is -1) of an invocation.
+     */
+    private record Arg(Invoke invoke, int index) {
+    }
+
+    /**
+     * Stack of pending fields. A load entry represents that the contents
+     * of the field of the tracked object are being looked for,
+     * and a store entry represents that the tracked object has been stored
+     * into the field and the loads of the field are being looked for.
+     */
+    private record FieldStack(Object field, boolean load,
+                              @Nullable FieldStack next) {
+    }
+
+    /**
+     * Traversal state. In backward state, the objects flowing to var
+     * are being looked for; in forward state, var holds the tracked object,
+     * and the variables which the object flows to are being looked for.
+     */
+    private record State(Var var, @Nullable FieldStack stack, boolean forward) {
+    }
+
+    private class Query {
+
+        private final Var var;
+
+        private final Set<State> visited = Sets.newSet();
+
+        private final Deque<State> workList = new ArrayDeque<>();
+
+        private final Set<Obj> result = Sets.newHybridSet();
+
+        private Query(Var var) {
+            this.var = var;
+        }
+
+        /**
+         * @return the points-to set of the queried variable, or null if
+         * the query exceeds the budget.
+         */
+        @Nullable
+        private Set<Obj> solve() {
+            backward(var, null);
+            int steps = 0;
+            while (!workList.isEmpty()) {
+                if (++steps > budget) {
+                    return null;
+                }
+                State state = workList.poll();
+                if (state.forward()) {
+                    processForward(state.var(), state.stack());
+                } else {
+                    processBackward(state.var(), state.stack());
+                }
+            }
+            return result;
+        }
+
+        private void backward(Var v, @Nullable FieldStack stack) {
+            addState(new State(v, stack, false));
+        }
+
+        private void forward(Var v, FieldStack stack) {
+            addState(new State(v, stack, true));
+        }
+
+        private void addState(State state) {
+            if (visited.add(state)) {
+                workList.add(state);
+            }
+        }
+
+        private void processBackward(Var v, @Nullable FieldStack stack) {
+            for (Stmt stmt : defs.get(v)) {
+                if (stmt instanceof New newStmt) {
+                    if (stack == null) {
+                        result.add(heapModel.getObj(newStmt));
+                    } else {
+                        // find the aliases of the object to resolve
+                        // the pending fields
+                        forward(v, stack);
+                    }
+                } else if (stmt instanceof Copy copy) {
+                    backward(copy.getRValue(), stack);
+                } else if (stmt instanceof LoadField load) {
+                    if (load.isStatic()) {
+                        staticStores.get(load.getFieldRef().resolve())
+                                .forEach(store -> backward(store.getRValue(), stack));
+                    } else {
+                        Var base = ((InstanceFieldAccess) load.getFieldAccess()).getBase();
+                        backward(base, new FieldStack(
+                                load.getFieldRef().resolve(), true, stack));
+                    }
+                } else if (stmt instanceof LoadArray load) {
+                    backward(load.getArrayAccess().getBase(),
+                            new FieldStack(ARRAY_FIELD, true, stack));
+                } else if (stmt instanceof Invoke invoke) {
+                    callGraph.getCalleesOf(invoke).forEach(callee ->
+                            callee.getIR().getReturnVars().forEach(ret ->
+                                    backward(ret, stack)));
+                }
+            }
+            Integer index = paramIndexes.get(v);
+            if (index != null) {
+                callGraph.getCallersOf(v.getMethod()).forEach(callSite -> {
+                    Var arg = getArg(callSite, index);
+                    if (arg != null) {
+                        backward(arg, stack);
+                    }
+                });
+            }
+        }
+
+        private void processForward(Var v, FieldStack stack) {
+            for (Stmt stmt : uses.get(v)) {
+                if (stmt instanceof Copy copy) {
+                    forward(copy.getLValue(), stack);
+                } else if (stmt instanceof StoreField store) {
+                    if (store.isStatic()) {
+                        staticLoads.get(store.getFieldRef().resolve())
+                                .forEach(load -> forward(load.getLValue(), stack));
+                    } else {
+                        // the object is stored into the field, and
+                        // we look for the loads on the aliases of base
+                        Var base = ((InstanceFieldAccess) store.getFieldAccess()).getBase();
+                        backward(base, new FieldStack(
+                                store.getFieldRef().resolve(), false, stack));
+                    }
+                } else if (stmt instanceof StoreArray store) {
+                    backward(store.getArrayAccess().getBase(),
+                            new FieldStack(ARRAY_FIELD, false, stack));
+                }
+            }
+            // match the stores/loads whose base is an alias of the object
+            if (stack.load()) {
+                v.getStoreFields().forEach(store -> {
+                    if (!store.isStatic() &&
+                            store.getFieldRef().resolve().equals(stack.field())) {
+                        backward(store.getRValue(), stack.next());
+                    }
+                });
+                if (stack.field() == ARRAY_FIELD) {
+                    v.getStoreArrays().forEach(store ->
+                            backward(store.getRValue(), stack.next()));
+                }
+            } else {
+                v.getLoadFields().forEach(load -> {
+                    if (!load.isStatic() &&
+                            load.getFieldRef().resolve().equals(stack.field())) {
+                        forward(load.getLValue(), stack.next());
+                    }
+                });
+                if (stack.field() == ARRAY_FIELD) {
+                    v.getLoadArrays().forEach(load ->
+                            forward(load.getLValue(), stack.next()));
+                }
+            }
+            for (Arg arg : args.get(v)) {
+                callGraph.getCalleesOf(arg.invoke()).forEach(callee -> {
+                    IR ir = callee.getIR();
+                    Var param = arg.index() == -1 ? ir.getThis() :
+                            ir.getParam(arg.index());
+                    if (param != null) {
+                        forward(param, stack);
+                    }
+                });
+            }
+            if (returnVars.contains(v)) {
+                callGraph.getCallersOf(v.getMethod()).forEach(callSite -> {
+                    Var lhs = callSite.getResult();
+                    if (lhs != null) {
+                        forward(lhs, stack);
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * @return the index-th argument of the call site (the receiver if
+     * index is -1), or null if the argument is absent.
+     */
+    @Nullable
+    private static Var getArg(Invoke callSite, int index) {
+        InvokeExp invokeExp = callSite.getInvokeExp();
+        if (index == -1) {
+            return invokeExp instanceof InvokeInstanceExp instanceExp ?
+                    instanceExp.getBase() : null;
+        }
+        return index < invokeExp.getArgCount() ? invokeExp.getArg(index) : null;
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.demand;
+
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.core.cs.element.ArrayIndex;
+import pascal.taie.analysis.pta.core.cs.element.CSCallSite;
+import pascal.taie.analysis.pta.core.cs.element.CSMethod;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.CSVar;
+import pascal.taie.analysis.pta.core.cs.element.InstanceField;
+import pascal.taie.analysis.pta.core.cs.element.StaticField;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.AbstractResultHolder;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Pointer analysis result backed by a {@link DemandDrivenPTA}.
+ * The points-to sets of variables are computed on demand, and the other
+ * parts of the result are given by the fallback of the demand-driven
+ * analysis, which runs the exhaustive analysis on first use.
+ */
+public class DemandDrivenResult extends AbstractResultHolder
+        implements PointerAnalysisResult {
+
+    private final DemandDrivenPTA pta;
+
+    public DemandDrivenResult(DemandDrivenPTA pta) {
+        this.pta = pta;
+    }
+
+    /**
+     * @return the demand-driven analysis which answers the queries.
+     */
+    public DemandDrivenPTA getDemandDrivenPTA() {
+        return pta;
+    }
+
+    @Override
+    public Set<Obj> getPointsToSet(Var var) {
+        return pta.getPointsToSet(var);
+    }
+
+    @Override
+    public Collection<CSVar> getCSVars() {
+        return pta.getFallbackResult().getCSVars();
+    }
+
+    @Override
+    public Collection<Var> getVars() {
+        return pta.getFallbackResult().getVars();
+    }
+
+    @Override
+    public Collection<InstanceField> getInstanceFields() {
+        return pta.getFallbackResult().getInstanceFields();
+    }
+
+    @Override
+    public Collection<ArrayIndex> getArrayIndexes() {
+        return pta.getFallbackResult().getArrayIndexes();
+    }
+
+    @Override
+    public Collection<StaticField> getStaticFields() {
+        return pta.getFallbackResult().getStaticFields();
+    }
+
+    @Override
+    public Collection<CSObj> getCSObjects() {
+        return pta.getFallbackResult().getCSObjects();
+    }
+
+    @Override
+    public Collection<Obj> getObjects() {
+        return pta.getFallbackResult().getObjects();
+    }
+
+    @Override
+    public Set<CSObj> getPointsToSet(CSVar var) {
+        return pta.getFallbackResult().getPointsToSet(var);
+    }
+
+    @Override
+    public Set<Obj> getPointsToSet(Var base, JField field) {
+        return pta.getFallbackResult().getPointsToSet(base, field);
+    }
+
+    @Override
+    public Set<Obj> getPointsToSet(JField field) {
+        return pta.getFallbackResult().getPointsToSet(field);
+    }
+
+    @Override
+    public CallGraph<CSCallSite, CSMethod> getCSCallGraph() {
+        return pta.getFallbackResult().getCSCallGraph();
+    }
+
+    @Override
+    public CallGraph<Invoke, JMethod> getCallGraph() {
+        return pta.getFallbackResult().getCallGraph();
+    }
+}
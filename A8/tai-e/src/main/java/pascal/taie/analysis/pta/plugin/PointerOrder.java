@@ -0,0 +1,136 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.plugin;
+
+import pascal.taie.analysis.pta.core.cs.context.Context;
+import pascal.taie.analysis.pta.core.cs.element.ArrayIndex;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.CSVar;
+import pascal.taie.analysis.pta.core.cs.element.InstanceField;
+import pascal.taie.analysis.pta.core.cs.element.StaticField;
+import pascal.taie.analysis.pta.core.heap.NewObj;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.ClassMember;
+import pascal.taie.language.type.Type;
+
+import java.util.Comparator;
+
+/**
+ * Stable orders of pointers, which depend only on the program, i.e.,
+ * signatures of methods and fields and indexes of variables and
+ * statements, but not on the order in which the pointers are created
+ * by the analysis. Unlike ordering by {@link Object#toString()},
+ * comparing pointers does not build any strings for the common
+ * elements (variables, allocation sites and call sites).
+ */
+final class PointerOrder {
+
+    private PointerOrder() {
+    }
+
+    static final Comparator<CSVar> CS_VAR = (v1, v2) -> {
+        int cmp = compareMembers(v1.getVar().getMethod(), v2.getVar().getMethod());
+        if (cmp == 0) {
+            cmp = Integer.compare(v1.getVar().getIndex(), v2.getVar().getIndex());
+        }
+        return cmp != 0 ? cmp : compareContexts(v1.getContext(), v2.getContext());
+    };
+
+    static final Comparator<StaticField> STATIC_FIELD = (f1, f2) ->
+            compareMembers(f1.getField(), f2.getField());
+
+    static final Comparator<InstanceField> INSTANCE_FIELD = (f1, f2) -> {
+        int cmp = compareCSObjs(f1.getBase(), f2.getBase());
+        return cmp != 0 ? cmp : compareMembers(f1.getField(), f2.getField());
+    };
+
+    static final Comparator<ArrayIndex> ARRAY_INDEX = (a1, a2) ->
+            compareCSObjs(a1.getArray(), a2.getArray());
+
+    private static int compareMembers(ClassMember m1, ClassMember m2) {
+        return m1 == m2 ? 0 : m1.getSignature().compareTo(m2.getSignature());
+    }
+
+    private static int compareCSObjs(CSObj o1, CSObj o2) {
+        if (o1 == o2) {
+            return 0;
+        }
+        int cmp = compareObjs(o1.getObject(), o2.getObject());
+        return cmp != 0 ? cmp : compareContexts(o1.getContext(), o2.getContext());
+    }
+
+    private static int compareContexts(Context c1, Context c2) {
+        if (c1 == c2) {
+            return 0;
+        }
+        int cmp = Integer.compare(c1.getLength(), c2.getLength());
+        for (int i = 0; cmp == 0 && i < c1.getLength(); ++i) {
+            cmp = compareElements(c1.getElementAt(i), c2.getElementAt(i));
+        }
+        return cmp;
+    }
+
+    private static int compareElements(Object e1, Object e2) {
+        if (e1 == e2) {
+            return 0;
+        }
+        if (e1 instanceof Invoke i1 && e2 instanceof Invoke i2) {
+            return compareStmts(i1, i1.getContainer(), i2, i2.getContainer());
+        } else if (e1 instanceof Obj o1 && e2 instanceof Obj o2) {
+            return compareObjs(o1, o2);
+        } else if (e1 instanceof Type t1 && e2 instanceof Type t2) {
+            return t1.getName().compareTo(t2.getName());
+        }
+        return compareByString(e1, e2);
+    }
+
+    private static int compareObjs(Obj o1, Obj o2) {
+        if (o1 == o2) {
+            return 0;
+        }
+        if (o1 instanceof NewObj n1 && o2 instanceof NewObj n2) {
+            New s1 = n1.getAllocation(), s2 = n2.getAllocation();
+            return compareStmts(s1, s1.getContainer(), s2, s2.getContainer());
+        }
+        return compareByString(o1, o2);
+    }
+
+    private static int compareStmts(Stmt s1, ClassMember m1,
+                                    Stmt s2, ClassMember m2) {
+        int cmp = compareMembers(m1, m2);
+        return cmp != 0 ? cmp : Integer.compare(s1.getIndex(), s2.getIndex());
+    }
+
+    /**
+     * Fallback for the rare elements, e.g., mock objects, that are
+     * ordered first by their kinds, and then by their string
+     * representations.
+     */
+    private static int compareByString(Object o1, Object o2) {
+        int cmp = o1.getClass().getName().compareTo(o2.getClass().getName());
+        return cmp != 0 ? cmp : o1.toString().compareTo(o2.toString());
+    }
+}
@@ -0,0 +1,409 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.plugin;
+
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.core.cs.context.Context;
+import pascal.taie.analysis.pta.core.cs.element.ArrayIndex;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.CSVar;
+import pascal.taie.analysis.pta.core.cs.element.InstanceField;
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.core.cs.element.StaticField;
+import pascal.taie.analysis.pta.core.heap.NewObj;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.analysis.pta.pts.PointsToSet;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.language.classes.ClassMember;
+import pascal.taie.language.type.Type;
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Streams;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Compact digests of points-to sets for comparing large results.
+ * <p>
+ * Each pointer is recorded as a pair of 64-bit hashes: the key of
+ * the pointer, and the digest of its points-to set, which is independent
+ * of the iteration order of the set. The keys are computed from
+ * the stable ids of the program elements (signatures of methods and
+ * fields, and indexes of variables and statements), thus no strings
+ * are built for the common pointers and objects. The digest file groups
+ * the pairs by category of pointers, sorted by the keys, followed by
+ * the names of the pointers in the same order. Comparison only keeps two
+ * long arrays per category in memory, renders the names of the mismatching
+ * pointers of this result, and reads the names of the missing pointers
+ * from the file.
+ */
+class PointsToDigest {
+
+    private static final int MAGIC = 0x50545344; // "PTSD"
+
+    private static final int VERSION = 2;
+
+    // seeds of the kinds of pointers
+    private static final long VAR = 1;
+
+    private static final long STATIC_FIELD = 2;
+
+    private static final long INSTANCE_FIELD = 3;
+
+    private static final long ARRAY_INDEX = 4;
+
+    private final List<Collection<? extends Pointer>> categories;
+
+    /**
+     * Caches the hashes of signatures of methods and fields.
+     */
+    private final Map<ClassMember, Long> memberHashes = Maps.newConcurrentMap();
+
+    /**
+     * Caches the hashes of contexts, which are shared by many pointers.
+     */
+    private final Map<Context, Long> contextHashes = Maps.newConcurrentMap();
+
+    /**
+     * Caches the hashes of objects, which are shared by many points-to sets.
+     */
+    private final Map<CSObj, Long> objHashes = Maps.newConcurrentMap();
+
+    PointsToDigest(PointerAnalysisResult result) {
+        categories = List.of(result.getCSVars(), result.getStaticFields(),
+                result.getInstanceFields(), result.getArrayIndexes());
+    }
+
+    void dump(Path output) {
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(output)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            List<Pointer[]> sortedPointers = new ArrayList<>();
+            for (Collection<? extends Pointer> pointers : categories) {
+                int size = pointers.size();
+                long[] keys = new long[size];
+                long[] digests = new long[size];
+                Pointer[] sorted = pointers.toArray(new Pointer[0]);
+                for (int i = 0; i < size; ++i) {
+                    keys[i] = key(sorted[i]);
+                    digests[i] = digest(sorted[i].getPointsToSet());
+                }
+                sortByKeys(keys, digests, sorted);
+                out.writeInt(size);
+                for (int i = 0; i < size; ++i) {
+                    if (i > 0 && keys[i] == keys[i - 1]) {
+                        throw new AnalysisException("Hash collision of pointers " +
+                                sorted[i - 1] + " and " + sorted[i]);
+                    }
+                    out.writeLong(keys[i]);
+                    out.writeLong(digests[i]);
+                }
+                sortedPointers.add(sorted);
+            }
+            // names are only read for the missing pointers on comparison
+            for (Pointer[] pointers : sortedPointers) {
+                for (Pointer p : pointers) {
+                    byte[] name = p.toString().getBytes(StandardCharsets.UTF_8);
+                    out.writeInt(name.length);
+                    out.write(name);
+                }
+            }
+        } catch (IOException e) {
+            throw new AnalysisException(
+                    "Failed to dump points-to digests to " + output, e);
+        }
+    }
+
+    /**
+     * Compares the points-to sets with the digests read from input file.
+     *
+     * @param parallel if true, the categories of pointers are compared
+     *                 in parallel.
+     */
+    void compare(Path input, boolean parallel) {
+        List<String> mismatches = new ArrayList<>();
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(input)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new AnalysisException(
+                        input + " is not a compatible points-to digest file");
+            }
+            List<Digests> expected = new ArrayList<>();
+            for (int i = 0; i < categories.size(); ++i) {
+                int size = in.readInt();
+                long[] keys = new long[size];
+                long[] digests = new long[size];
+                for (int j = 0; j < size; ++j) {
+                    keys[j] = in.readLong();
+                    digests[j] = in.readLong();
+                }
+                expected.add(new Digests(keys, digests, new BitSet(size)));
+            }
+            IntStream shards = IntStream.range(0, categories.size());
+            if (parallel) {
+                shards = shards.parallel();
+            }
+            shards.mapToObj(i -> compare(categories.get(i), expected.get(i)))
+                    .flatMap(List::stream)
+                    .forEachOrdered(mismatches::add);
+            for (Digests digests : expected) {
+                readMissingNames(in, digests, mismatches);
+            }
+        } catch (IOException e) {
+            throw new AnalysisException(
+                    "Failed to read points-to digests from " + input, e);
+        }
+        if (!mismatches.isEmpty()) {
+            throw new AnalysisException("Mismatches of points-to set\n" +
+                    String.join("\n", mismatches));
+        }
+    }
+
+    /**
+     * Compares the pointers with the expected digests, and marks
+     * the matched keys. Only the mismatching pointers are rendered.
+     */
+    private List<String> compare(Collection<? extends Pointer> pointers,
+                                 Digests expected) {
+        List<String> mismatches = new ArrayList<>();
+        for (Pointer p : pointers) {
+            PointsToSet pts = p.getPointsToSet();
+            int i = Arrays.binarySearch(expected.keys, key(p));
+            if (i < 0) {
+                mismatches.add(String.format("%s, expected: null, given: %s",
+                        p, Streams.toString(pts.objects())));
+            } else {
+                expected.matched.set(i);
+                if (expected.digests[i] != digest(pts)) {
+                    mismatches.add(String.format(
+                            "%s, expected digest: %016x, given: %s", p,
+                            expected.digests[i], Streams.toString(pts.objects())));
+                }
+            }
+        }
+        return mismatches;
+    }
+
+    /**
+     * Reads the names of a category of pointers, and reports the ones
+     * which are absent in this result. The names of the other pointers
+     * are skipped.
+     */
+    private static void readMissingNames(DataInputStream in, Digests expected,
+                                         List<String> mismatches) throws IOException {
+        for (int i = 0; i < expected.keys.length; ++i) {
+            int length = in.readInt();
+            if (expected.matched.get(i)) {
+                in.skipNBytes(length);
+            } else {
+                String name = new String(in.readNBytes(length), StandardCharsets.UTF_8);
+                mismatches.add(String.format("%s, expected digest: %016x, given: null",
+                        name, expected.digests[i]));
+            }
+        }
+    }
+
+    /**
+     * @return the key of given pointer, computed from the stable ids
+     * of its elements.
+     */
+    private long key(Pointer p) {
+        if (p instanceof CSVar csVar) {
+            long h = combine(VAR, hashMember(csVar.getVar().getMethod()));
+            h = combine(h, csVar.getVar().getIndex());
+            return combine(h, hashContext(csVar.getContext()));
+        } else if (p instanceof StaticField sfield) {
+            return combine(STATIC_FIELD, hashMember(sfield.getField()));
+        } else if (p instanceof InstanceField ifield) {
+            long h = combine(INSTANCE_FIELD, hashCSObj(ifield.getBase()));
+            return combine(h, hashMember(ifield.getField()));
+        } else if (p instanceof ArrayIndex array) {
+            return combine(ARRAY_INDEX, hashCSObj(array.getArray()));
+        }
+        throw new AnalysisException("Unexpected pointer: " + p);
+    }
+
+    /**
+     * @return digest of given points-to set, i.e., the sum of the hashes
+     * of its objects and its size, which does not depend on the order
+     * of the objects.
+     */
+    private long digest(PointsToSet pts) {
+        long digest = 0;
+        int size = 0;
+        if (pts != null) {
+            for (CSObj obj : pts) {
+                digest += hashCSObj(obj);
+                ++size;
+            }
+        }
+        return mix(digest + size);
+    }
+
+    private long hashCSObj(CSObj csObj) {
+        Long h = objHashes.get(csObj);
+        return h != null ? h : objHashes.computeIfAbsent(csObj, o ->
+                combine(hashObj(o.getObject()), hashContext(o.getContext())));
+    }
+
+    /**
+     * Objects allocated by New statements are hashed by their allocation
+     * sites, and the rare other objects (e.g., mock objects) are hashed
+     * by their string representations.
+     */
+    private long hashObj(Obj obj) {
+        if (obj instanceof NewObj newObj) {
+            New alloc = newObj.getAllocation();
+            return combine(hashMember(alloc.getContainer()), alloc.getIndex());
+        }
+        return hash(obj.toString());
+    }
+
+    private long hashContext(Context context) {
+        Long h = contextHashes.get(context);
+        if (h == null) {
+            long hash = context.getLength();
+            for (int i = 0; i < context.getLength(); ++i) {
+                hash = combine(hash, hashElement(context.getElementAt(i)));
+            }
+            contextHashes.put(context, hash);
+            return hash;
+        }
+        return h;
+    }
+
+    private long hashElement(Object elem) {
+        if (elem instanceof Invoke invoke) {
+            return combine(hashMember(invoke.getContainer()), invoke.getIndex());
+        } else if (elem instanceof Obj obj) {
+            return hashObj(obj);
+        } else if (elem instanceof Type type) {
+            return hash(type.getName());
+        }
+        return hash(elem.toString());
+    }
+
+    private long hashMember(ClassMember member) {
+        Long h = memberHashes.get(member);
+        return h != null ? h : memberHashes.computeIfAbsent(member,
+                m -> hash(m.getSignature()));
+    }
+
+    /**
+     * Sorts the keys in ascending order, and permutes the digests and
+     * pointers accordingly. This is a heapsort on the parallel arrays,
+     * so no boxed entries are created.
+     */
+    private static void sortByKeys(long[] keys, long[] digests, Pointer[] pointers) {
+        int n = keys.length;
+        for (int i = n / 2 - 1; i >= 0; --i) {
+            siftDown(keys, digests, pointers, i, n);
+        }
+        for (int end = n - 1; end > 0; --end) {
+            swap(keys, digests, pointers, 0, end);
+            siftDown(keys, digests, pointers, 0, end);
+        }
+    }
+
+    private static void siftDown(long[] keys, long[] digests, Pointer[] pointers,
+                                 int i, int n) {
+        while (true) {
+            int max = i, left = 2 * i + 1, right = left + 1;
+            if (left < n && keys[left] > keys[max]) {
+                max = left;
+            }
+            if (right < n && keys[right] > keys[max]) {
+                max = right;
+            }
+            if (max == i) {
+                return;
+            }
+            swap(keys, digests, pointers, i, max);
+            i = max;
+        }
+    }
+
+    private static void swap(long[] keys, long[] digests, Pointer[] pointers,
+                             int i, int j) {
+        long key = keys[i];
+        keys[i] = keys[j];
+        keys[j] = key;
+        long digest = digests[i];
+        digests[i] = digests[j];
+        digests[j] = digest;
+        Pointer p = pointers[i];
+        pointers[i] = pointers[j];
+        pointers[j] = p;
+    }
+
+    private static long combine(long h, long x) {
+        return mix(h * 0x100000001b3L + x);
+    }
+
+    /**
+     * 64-bit FNV-1a hash of given string.
+     */
+    private static long hash(String s) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < s.length(); ++i) {
+            h ^= s.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return mix(h);
+    }
+
+    /**
+     * Finalization mix of MurmurHash3, which spreads the bits of h.
+     */
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * Digests of a category of pointers, sorted by the keys, and
+     * the keys matched by the pointers of this result.
+     */
+    private record Digests(long[] keys, long[] digests, BitSet matched) {
+    }
+}
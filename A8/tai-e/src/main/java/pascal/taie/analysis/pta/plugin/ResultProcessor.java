@@ -24,23 +24,35 @@ package pascal.taie.analysis.pta.plugin;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import pascal.taie.analysis.graph.callgraph.DispatchCache;
 import pascal.taie.analysis.pta.PointerAnalysisResult;
 import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.cs.PointerAnalysisMetrics;
+import pascal.taie.analysis.pta.plugin.taint.TaintAnalysiss;
 import pascal.taie.analysis.pta.plugin.taint.TaintFlow;
 import pascal.taie.analysis.pta.pts.PointsToSet;
 import pascal.taie.config.AnalysisOptions;
 import pascal.taie.util.AnalysisException;
 import pascal.taie.util.collection.Streams;
 
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.LinkedHashMap;
@@ -50,6 +62,7 @@ import java.util.Set;
 import java.util.function.Predicate;
 import java.util.function.ToIntFunction;
 import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
 
 import static pascal.taie.util.collection.CollectionUtils.sum;
 
@@ -58,6 +71,16 @@ import static pascal.taie.util.collection.CollectionUtils.sum;
  * the ones read from input file.
  * Currently, the compare functionality is mainly for testing purpose.
  * It is not efficient and not recommended applying on large program.
+ * <p>
+ * Action "dump" writes the pointers sorted by their string representations,
+ * which is the format used by tests. For large programs, action
+ * "stream-dump" writes the same lines in the order of the stable ids
+ * given by {@link StableIds} through a buffered writer, without sorting
+ * the pointers or holding the strings of all pointers in memory. If the output file ends with
+ * ".gz", the dump is gzip-compressed.
+ * <p>
+ * Actions "dump-digest" and "compare-digest" work on the compact digests
+ * of points-to sets given by {@link PointsToDigest}, instead of text.
  */
 public class ResultProcessor {
 
@@ -70,6 +93,11 @@ public class ResultProcessor {
      */
     private static final String SEP = " -> ";
 
+    /**
+     * Buffer size of streaming dump.
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+
     private static final DecimalFormat formatter = new DecimalFormat("#,####");
 
     public static void process(AnalysisOptions options,
@@ -85,6 +113,9 @@ public class ResultProcessor {
             case "dump":
                 dumpPointsToSet(result, file, taintEnabled);
                 break;
+            case "stream-dump":
+                streamPointsToSet(result, file, taintEnabled);
+                break;
             case "compare":
                 if (taintEnabled) {
                     // when taint analysis is enabled, we only compare
@@ -94,22 +125,51 @@ public class ResultProcessor {
                     comparePointsToSet(result, file);
                 }
                 break;
+            case "dump-digest":
+                new PointsToDigest(result).dump(Path.of(file));
+                break;
+            case "compare-digest":
+                logger.info("Comparing points-to set with digests in {} ...", file);
+                new PointsToDigest(result).compare(Path.of(file),
+                        options.getBooleanOrDefault("parallel-compare", false));
+                break;
         }
     }
 
+    /**
+     * Prints the statistics of the result. The counters maintained by
+     * {@link PointerAnalysisMetrics} are used if the result is given by
+     * the solver, otherwise (e.g., the result is loaded from a snapshot)
+     * they are computed from the result.
+     */
     private static void printStatistics(PointerAnalysisResult result) {
         int varInsens = result.getVars().size();
         int varSens = result.getCSVars().size();
         int vptSizeInsens = sum(result.getVars(), v -> result.getPointsToSet(v).size());
-        ToIntFunction<Pointer> getSize = p -> p.getPointsToSet().size();
-        int vptSizeSens = sum(result.getCSVars(), getSize);
-        int sfptSizeSens = sum(result.getStaticFields(), getSize);
-        int ifptSizeSens = sum(result.getInstanceFields(), getSize);
-        int aptSizeSens = sum(result.getArrayIndexes(), getSize);
-        int reachableInsens = result.getCallGraph().getNumberOfMethods();
-        int reachableSens = result.getCSCallGraph().getNumberOfMethods();
-        int callEdgeInsens = (int) result.getCallGraph().edges().count();
-        int callEdgeSens = (int) result.getCSCallGraph().edges().count();
+        long vptSizeSens, sfptSizeSens, ifptSizeSens, aptSizeSens;
+        int reachableInsens, reachableSens, callEdgeInsens, callEdgeSens;
+        PointerAnalysisMetrics metrics = result.getResult(
+                PointerAnalysisMetrics.class.getName(), (PointerAnalysisMetrics) null);
+        if (metrics != null) {
+            vptSizeSens = metrics.getVarPointsTo();
+            sfptSizeSens = metrics.getStaticFieldPointsTo();
+            ifptSizeSens = metrics.getInstanceFieldPointsTo();
+            aptSizeSens = metrics.getArrayPointsTo();
+            reachableInsens = metrics.getNumberOfReachableMethods();
+            reachableSens = metrics.getNumberOfReachableCSMethods();
+            callEdgeInsens = metrics.getNumberOfCallEdges();
+            callEdgeSens = metrics.getNumberOfCSCallEdges();
+        } else {
+            ToIntFunction<Pointer> getSize = p -> p.getPointsToSet().size();
+            vptSizeSens = sum(result.getCSVars(), getSize);
+            sfptSizeSens = sum(result.getStaticFields(), getSize);
+            ifptSizeSens = sum(result.getInstanceFields(), getSize);
+            aptSizeSens = sum(result.getArrayIndexes(), getSize);
+            reachableInsens = result.getCallGraph().getNumberOfMethods();
+            reachableSens = result.getCSCallGraph().getNumberOfMethods();
+            callEdgeInsens = (int) result.getCallGraph().edges().count();
+            callEdgeSens = (int) result.getCSCallGraph().edges().count();
+        }
         System.out.println("-------------- Pointer analysis statistics: --------------");
         System.out.printf("%-30s%s (insens) / %s (sens)%n", "#var pointers:",
                 format(varInsens), format(varSens));
@@ -125,10 +185,18 @@ public class ResultProcessor {
                 format(reachableInsens), format(reachableSens));
         System.out.printf("%-30s%s (insens) / %s (sens)%n", "#call graph edges:",
                 format(callEdgeInsens), format(callEdgeSens));
+        DispatchCache dispatchCache = result.getResult(
+                DispatchCache.class.getName(), (DispatchCache) null);
+        if (dispatchCache != null) {
+            System.out.printf("%-30s%s hits / %s misses (%.2f%%)%n",
+                    "#dispatch cache:", format(dispatchCache.getHits()),
+                    format(dispatchCache.getMisses()),
+                    dispatchCache.getHitRate() * 100);
+        }
         System.out.println("----------------------------------------");
     }
 
-    private static String format(int i) {
+    private static String format(long i) {
         return formatter.format(i);
     }
 
@@ -151,7 +219,11 @@ public class ResultProcessor {
         dumpPointers(out, result.getInstanceFields(), "instance fields");
         dumpPointers(out, result.getArrayIndexes(), "array indexes");
         if (taintEnabled) {
-            dumpTaintFlows(out, result);
+            try {
+                dumpTaintFlows(out, result);
+            } catch (IOException e) { // never thrown by PrintStream
+                throw new AnalysisException("Failed to dump taint flows", e);
+            }
         }
         if (out != System.out) {
             out.close();
@@ -166,6 +238,118 @@ public class ResultProcessor {
         out.println();
     }
 
+    private static void streamPointsToSet(PointerAnalysisResult result,
+                                          String output, boolean taintEnabled) {
+        try {
+            if (output != null) {
+                logger.info("Dumping points-to set to {} ...", output);
+                try (Writer out = openWriter(output)) {
+                    streamPointsToSet(out, result, taintEnabled);
+                }
+            } else {
+                Writer out = newWriter(System.out);
+                streamPointsToSet(out, result, taintEnabled);
+                out.flush();
+            }
+        } catch (IOException e) {
+            throw new AnalysisException("Failed to dump points-to set", e);
+        }
+    }
+
+    private static void streamPointsToSet(Writer out, PointerAnalysisResult result,
+                                          boolean taintEnabled) throws IOException {
+        StableIds ids = new StableIds(
+                result.getCallGraph().reachableMethods().toList());
+        streamPointers(out, result.getCSVars(),
+                v -> ids.getVarId(v.getVar()), ids.getNumberOfVars(),
+                PointerOrder.CS_VAR, "variables");
+        // static fields are bounded by the fields in the program,
+        // and they are simply ordered as the pointers without ids
+        streamPointers(out, result.getStaticFields(),
+                f -> StableIds.NONE, 0,
+                PointerOrder.STATIC_FIELD, "static fields");
+        streamPointers(out, result.getInstanceFields(),
+                f -> ids.getObjId(f.getBase().getObject()), ids.getNumberOfObjs(),
+                PointerOrder.INSTANCE_FIELD, "instance fields");
+        streamPointers(out, result.getArrayIndexes(),
+                a -> ids.getObjId(a.getArray().getObject()), ids.getNumberOfObjs(),
+                PointerOrder.ARRAY_INDEX, "array indexes");
+        if (taintEnabled) {
+            dumpTaintFlows(out, result);
+        }
+    }
+
+    /**
+     * Opens a buffered writer to the output file.
+     */
+    private static Writer openWriter(String output) throws IOException {
+        OutputStream out = Channels.newOutputStream(FileChannel.open(
+                Path.of(output), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING));
+        if (output.endsWith(".gz")) {
+            try {
+                out = new GZIPOutputStream(out, BUFFER_SIZE);
+            } catch (IOException e) {
+                out.close();
+                throw e;
+            }
+        }
+        return newWriter(out);
+    }
+
+    private static Writer newWriter(OutputStream out) {
+        return new BufferedWriter(
+                new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    /**
+     * Writes the pointers in the order of their stable ids given by
+     * getId (from 0 to nIds), followed by the pointers without ids
+     * ({@link StableIds#NONE}). The pointers are distributed to the ids
+     * by counting, without sorting; only the pointers of the same id
+     * (e.g., the variable in different contexts) are ordered by given
+     * order. Each line is written as soon as it is built.
+     */
+    private static <P extends Pointer> void streamPointers(
+            Writer out, Collection<P> pointers, ToIntFunction<? super P> getId,
+            int nIds, Comparator<? super P> order, String desc) throws IOException {
+        out.write(HEADER + desc + System.lineSeparator());
+        // starts[i] is the start position of the pointers of id i,
+        // and the pointers without ids are placed after the others
+        int[] starts = new int[nIds + 2];
+        for (P p : pointers) {
+            ++starts[toBucket(getId.applyAsInt(p), nIds) + 1];
+        }
+        for (int i = 1; i < starts.length; ++i) {
+            starts[i] += starts[i - 1];
+        }
+        Object[] buckets = new Object[pointers.size()];
+        int[] next = Arrays.copyOf(starts, nIds + 1);
+        for (P p : pointers) {
+            buckets[next[toBucket(getId.applyAsInt(p), nIds)]++] = p;
+        }
+        @SuppressWarnings("unchecked")
+        Comparator<Object> cmp = (Comparator<Object>) order;
+        for (int i = 0; i <= nIds; ++i) {
+            int start = starts[i], end = starts[i + 1];
+            if (end - start > 1) {
+                Arrays.sort(buckets, start, end, cmp);
+            }
+            for (int j = start; j < end; ++j) {
+                Pointer p = (Pointer) buckets[j];
+                out.write(p.toString());
+                out.write(SEP);
+                out.write(toString(p.getPointsToSet()));
+                out.write(System.lineSeparator());
+            }
+        }
+        out.write(System.lineSeparator());
+    }
+
+    private static int toBucket(int id, int nIds) {
+        return id == StableIds.NONE ? nIds : id;
+    }
+
     private static void comparePointsToSet(PointerAnalysisResult result, String input) {
         logger.info("Comparing points-to set with {} ...", input);
         var inputs = readPointsToSets(input);
@@ -222,11 +406,31 @@ public class ResultProcessor {
         return Streams.toString(pts.objects());
     }
 
-    private static void dumpTaintFlows(PrintStream out, PointerAnalysisResult result) {
+    /**
+     * Writes the taint flows, and the flows of each rule pack if there
+     * are multiple packs, for both "dump" and "stream-dump".
+     */
+    private static void dumpTaintFlows(Appendable out, PointerAnalysisResult result)
+            throws IOException {
+        String ls = System.lineSeparator();
         Set<TaintFlow> taintFlows = getTaintFlows(result);
-        out.printf("Detected %d taint flow(s):%n", taintFlows.size());
-        taintFlows.forEach(out::println);
-        out.println();
+        out.append(String.format("Detected %d taint flow(s):%n", taintFlows.size()));
+        for (TaintFlow taintFlow : taintFlows) {
+            out.append(taintFlow.toString()).append(ls);
+        }
+        out.append(ls);
+        Map<String, Set<TaintFlow>> packFlows =
+                result.getResult(TaintAnalysiss.RULE_PACK_FLOWS);
+        if (packFlows != null) {
+            for (var entry : packFlows.entrySet()) {
+                out.append(String.format("Rule pack %s: %d taint flow(s):%n",
+                        entry.getKey(), entry.getValue().size()));
+                for (TaintFlow taintFlow : entry.getValue()) {
+                    out.append(taintFlow.toString()).append(ls);
+                }
+                out.append(ls);
+            }
+        }
     }
 
     /**
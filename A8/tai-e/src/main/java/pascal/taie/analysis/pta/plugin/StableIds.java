@@ -0,0 +1,108 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.plugin;
+
+import pascal.taie.analysis.pta.core.heap.NewObj;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Stable ids of variables and allocation sites, which depend only on
+ * the program (like {@link PointerOrder}): the methods are ranked by
+ * their signatures, and the variables (statements) of each method are
+ * numbered by their indexes in the IR following the ones of the
+ * preceding methods. Only the methods are sorted on construction.
+ */
+final class StableIds {
+
+    /**
+     * Id for the elements outside the given methods, and the objects
+     * which are not allocated by New statements (e.g., mock objects).
+     */
+    static final int NONE = -1;
+
+    private final Map<JMethod, Integer> varBases;
+
+    private final Map<JMethod, Integer> stmtBases;
+
+    private final int nVars;
+
+    private final int nStmts;
+
+    StableIds(Collection<JMethod> methods) {
+        List<JMethod> sorted = methods.stream()
+                .sorted(Comparator.comparing(JMethod::getSignature))
+                .toList();
+        varBases = Maps.newMap(sorted.size());
+        stmtBases = Maps.newMap(sorted.size());
+        int vars = 0, stmts = 0;
+        for (JMethod method : sorted) {
+            IR ir = method.getIR();
+            varBases.put(method, vars);
+            stmtBases.put(method, stmts);
+            vars += ir.getVars().size();
+            stmts += ir.getStmts().size();
+        }
+        nVars = vars;
+        nStmts = stmts;
+    }
+
+    /**
+     * @return the id of the variable (from 0 to
+     * {@link #getNumberOfVars()}), or {@link #NONE}.
+     */
+    int getVarId(Var var) {
+        Integer base = varBases.get(var.getMethod());
+        return base != null ? base + var.getIndex() : NONE;
+    }
+
+    int getNumberOfVars() {
+        return nVars;
+    }
+
+    /**
+     * @return the id of the object given by its allocation site (from 0
+     * to {@link #getNumberOfObjs()}), or {@link #NONE}.
+     */
+    int getObjId(Obj obj) {
+        if (obj instanceof NewObj newObj) {
+            Integer base = stmtBases.get(newObj.getAllocation().getContainer());
+            if (base != null) {
+                return base + newObj.getAllocation().getIndex();
+            }
+        }
+        return NONE;
+    }
+
+    int getNumberOfObjs() {
+        return nStmts;
+    }
+}
@@ -0,0 +1,231 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.plugin.taint;
+
+import pascal.taie.config.ConfigException;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.Type;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Pattern of methods in taint configuration. It has the same form as
+ * method signature, i.e., {@code <C: R m(P1,P2,...)>}, and additionally
+ * supports following patterns:
+ * <ul>
+ *     <li>{@code *} in class name C or method name m matches any
+ *     sequence of characters, e.g., {@code <java.io.*: ...>}
+ *     <li>{@code C+} matches class C and all its subtypes
+ *     <li>{@code *} as return type R or parameter type Pi matches any type
+ *     <li>{@code ..} as parameter list matches any overload
+ * </ul>
+ * A signature without any pattern is resolved as an exact method.
+ */
+class MethodPattern {
+
+    private static final String WILDCARD = "*";
+
+    private static final String SUBTYPES = "+";
+
+    private static final String ANY_PARAMS = "..";
+
+    private final String signature;
+
+    /**
+     * Class name in the pattern, excluding the subtype marker.
+     */
+    private final String className;
+
+    private final boolean includeSubtypes;
+
+    private final String returnType;
+
+    private final String methodName;
+
+    /**
+     * Regular expression of method name, or null if the method name
+     * has no wildcard.
+     */
+    @Nullable
+    private final Pattern methodNameRegex;
+
+    /**
+     * Parameter types in the pattern, or null if the pattern
+     * matches any overload.
+     */
+    @Nullable
+    private final List<String> paramTypes;
+
+    private MethodPattern(String signature, String className,
+                          boolean includeSubtypes, String returnType,
+                          String methodName, @Nullable List<String> paramTypes) {
+        this.signature = signature;
+        this.className = className;
+        this.includeSubtypes = includeSubtypes;
+        this.returnType = returnType;
+        this.methodName = methodName;
+        this.methodNameRegex = methodName.contains(WILDCARD) ?
+                toRegex(methodName) : null;
+        this.paramTypes = paramTypes;
+    }
+
+    /**
+     * Parses a method pattern.
+     *
+     * @throws ConfigException if the signature is malformed
+     */
+    static MethodPattern parse(String signature) {
+        int colon = signature.indexOf(':');
+        int space = colon < 0 ? -1 : signature.indexOf(' ', colon + 2);
+        int lParen = space < 0 ? -1 : signature.indexOf('(', space);
+        int rParen = signature.lastIndexOf(')');
+        if (!signature.startsWith("<") || !signature.endsWith(">") ||
+                lParen < 0 || rParen < lParen) {
+            throw new ConfigException("Malformed method signature: " + signature);
+        }
+        String className = signature.substring(1, colon).trim();
+        boolean includeSubtypes = className.endsWith(SUBTYPES);
+        if (includeSubtypes) {
+            className = className.substring(0, className.length() - 1);
+        }
+        String returnType = signature.substring(colon + 1, space).trim();
+        String methodName = signature.substring(space + 1, lParen).trim();
+        String params = signature.substring(lParen + 1, rParen).trim();
+        List<String> paramTypes;
+        if (params.equals(ANY_PARAMS)) {
+            paramTypes = null;
+        } else if (params.isEmpty()) {
+            paramTypes = List.of();
+        } else {
+            paramTypes = Stream.of(params.split(","))
+                    .map(String::trim)
+                    .toList();
+        }
+        return new MethodPattern(signature, className, includeSubtypes,
+                returnType, methodName, paramTypes);
+    }
+
+    /**
+     * @return true if this pattern may match more than one method.
+     */
+    boolean isPattern() {
+        return includeSubtypes || paramTypes == null
+                || signature.contains(WILDCARD);
+    }
+
+    /**
+     * Resolves the methods matched by this pattern in given class hierarchy.
+     *
+     * @return the matched methods, or an empty list if none is found.
+     */
+    List<JMethod> resolve(ClassHierarchy hierarchy) {
+        if (!isPattern()) {
+            JMethod method = hierarchy.getMethod(signature);
+            return method != null ? List.of(method) : List.of();
+        }
+        List<JMethod> methods = new ArrayList<>();
+        for (JClass c : resolveClasses(hierarchy)) {
+            for (JMethod method : c.getDeclaredMethods()) {
+                if (matches(method)) {
+                    methods.add(method);
+                }
+            }
+        }
+        return methods;
+    }
+
+    private Collection<JClass> resolveClasses(ClassHierarchy hierarchy) {
+        List<JClass> classes;
+        if (className.contains(WILDCARD)) {
+            Pattern pattern = toRegex(className);
+            classes = hierarchy.allClasses()
+                    .filter(c -> pattern.matcher(c.getName()).matches())
+                    .toList();
+        } else {
+            JClass c = hierarchy.getClass(className);
+            classes = c != null ? List.of(c) : List.of();
+        }
+        if (!includeSubtypes) {
+            return classes;
+        }
+        return classes.stream()
+                .flatMap(c -> hierarchy.getAllSubclassesOf(c, true).stream())
+                .distinct()
+                .toList();
+    }
+
+    private boolean matches(JMethod method) {
+        if (!matchesName(method.getName()) ||
+                !matchesType(returnType, method.getReturnType())) {
+            return false;
+        }
+        if (paramTypes == null) {
+            return true;
+        }
+        if (paramTypes.size() != method.getParamCount()) {
+            return false;
+        }
+        for (int i = 0; i < paramTypes.size(); ++i) {
+            if (!matchesType(paramTypes.get(i), method.getParamType(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean matchesName(String name) {
+        return methodNameRegex != null ?
+                methodNameRegex.matcher(name).matches() :
+                methodName.equals(name);
+    }
+
+    private static boolean matchesType(String pattern, Type type) {
+        return pattern.equals(WILDCARD) || pattern.equals(type.getName());
+    }
+
+    /**
+     * Converts a pattern containing {@code *} to regular expression.
+     */
+    private static Pattern toRegex(String pattern) {
+        StringBuilder regex = new StringBuilder();
+        int start = 0;
+        for (int i = pattern.indexOf('*'); i >= 0; i = pattern.indexOf('*', start)) {
+            regex.append(Pattern.quote(pattern.substring(start, i))).append(".*");
+            start = i + 1;
+        }
+        regex.append(Pattern.quote(pattern.substring(start)));
+        return Pattern.compile(regex.toString());
+    }
+
+    @Override
+    public String toString() {
+        return signature;
+    }
+}
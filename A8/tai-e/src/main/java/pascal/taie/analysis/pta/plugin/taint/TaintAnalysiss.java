@@ -25,22 +25,113 @@ package pascal.taie.analysis.pta.plugin.taint;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import pascal.taie.World;
+import pascal.taie.analysis.graph.callgraph.CHABuilder;
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.graph.callgraph.Edge;
 import pascal.taie.analysis.pta.PointerAnalysisResult;
 import pascal.taie.analysis.pta.core.cs.context.Context;
+import pascal.taie.analysis.pta.core.cs.element.CSCallSite;
 import pascal.taie.analysis.pta.core.cs.element.CSManager;
+import pascal.taie.analysis.pta.core.cs.element.CSMethod;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.CSVar;
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.core.heap.Obj;
 import pascal.taie.analysis.pta.cs.Solver;
+import pascal.taie.analysis.pta.pts.PointsToSet;
+import pascal.taie.analysis.pta.pts.PointsToSetFactory;
+import pascal.taie.ir.exp.InvokeExp;
+import pascal.taie.ir.exp.InvokeInstanceExp;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.Type;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
 
+import javax.annotation.Nullable;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
 
+/**
+ * Taint analysis on top of context-sensitive pointer analysis, which
+ * propagates taint objects as points-to relations.
+ * <p>
+ * In sparse mode (enabled by option "sparse-taint"), taint objects
+ * are kept out of the points-to sets of the solver. They are propagated
+ * on a separate sparse graph, which consists of the PFG edges reachable
+ * from the sources (shared with the solver) and the taint transfer
+ * edges. As taint objects do not create call edges in this mode,
+ * the calls on variables pointing to taint objects are resolved with
+ * the types of the taint objects to find the taint transfers.
+ * <p>
+ * Option "taint-config" may give several config files separated by
+ * commas, and each of them is a rule pack. All rule packs are analyzed in
+ * a single pointer analysis, where the taint objects are tagged with
+ * their rule packs, and only the taint transfers and sinks of the same
+ * rule pack apply to them. The taint flows of each rule pack are stored
+ * in the result with key {@link #RULE_PACK_FLOWS}.
+ * <p>
+ * In summary mode (enabled by option "taint-summary"), the taint objects
+ * transferred from each taint object are cached by type and reused across
+ * all transfer edges, and transfer edges from variables not pointing
+ * to any taint objects are skipped without scanning their points-to sets.
+ * <p>
+ * If option "taint-flow-stream" gives a file, taint flows are written to
+ * the file by {@link TaintFlowStream} as soon as they are discovered,
+ * i.e., when a sink argument points to a taint object.
+ * <p>
+ * If option "sink-pruning" is enabled, a pre-pass on the CHA call graph
+ * computes the methods which may reach a call to a sink method, and the
+ * methods whose results are (transitively) returned to them, and
+ * the sources called in other methods are ignored. Thus, a source called
+ * in a wrapper method whose result flows to a sink in its caller is kept,
+ * and the pruning only misses the flows that reach sinks via fields,
+ * static fields or the arguments (e.g., a builder appended with a source)
+ * of the methods whose results are not used. Option "max-taint-flows" stops
+ * the analysis once the given number of taint flows has been discovered.
+ * <p>
+ * If option "taint-config-cache" gives a directory, the resolved configs
+ * are cached there by {@link TaintConfigCache}.
+ * <p>
+ * If option "taint-paths" is given, a shortest witness path of each
+ * taint flow is reconstructed by {@link TaintPathFinder} after the
+ * analysis and written to the given file. Option "taint-path-max-visits"
+ * bounds the number of pointers visited by the search of each path.
+ */
 public class TaintAnalysiss {
 
     private static final Logger logger = LogManager.getLogger(TaintAnalysiss.class);
 
+    /**
+     * Key of the taint flows of each rule pack in the pointer analysis
+     * result, which is present when multiple rule packs are given.
+     */
+    public static final String RULE_PACK_FLOWS = "rule-pack-flows";
+
     private final TaintManager manager;
 
-    private final TaintConfig config;
+    /**
+     * Ids of the rule packs, i.e., the taint config files.
+     */
+    private final List<String> packIds;
+
+    /**
+     * Taint configs of the rule packs, indexed by the rule packs.
+     */
+    private final List<TaintConfig> configs;
 
     private final Solver solver;
 
@@ -48,30 +139,658 @@ public class TaintAnalysiss {
 
     private final Context emptyContext;
 
+    /**
+     * Whether taint objects are propagated in sparse mode.
+     */
+    private final boolean sparse;
+
+    /**
+     * Map from a pointer to the taint objects it points to in sparse mode.
+     */
+    private final Map<Pointer, PointsToSet> taintPts = Maps.newConcurrentMap();
+
+    /**
+     * Whether taint transfers are applied with summaries.
+     */
+    private final boolean summary;
+
+    /**
+     * Map from a taint object to the taint objects transferred from it,
+     * indexed by their types. Only used in summary mode.
+     */
+    private final Map<CSObj, Map<Type, CSObj>> transferSummaries =
+            Maps.newConcurrentMap();
+
+    /**
+     * Variables known to point to taint objects. Only used in summary mode.
+     */
+    private final Set<CSVar> taintedVars = Sets.newConcurrentSet();
+
+    /**
+     * Number of taint transfers that reuse the summaries.
+     */
+    private final LongAdder reusedTaints = new LongAdder();
+
+    /**
+     * Methods that may reach a call to a sink method on the CHA call
+     * graph, or may be called by such methods, or null if sink pruning
+     * is disabled.
+     */
+    @Nullable
+    private final Set<JMethod> sinkRelevantMethods;
+
+    /**
+     * Maximum number of taint flows to find before the analysis is
+     * stopped, or 0 if the analysis runs to completion.
+     */
+    private final int maxFlows;
+
+    /**
+     * Taint flows discovered during the analysis. Only used when
+     * {@link #maxFlows} is given.
+     */
+    private final Set<TaintFlow> discoveredFlows = Sets.newConcurrentSet();
+
+    private final AtomicInteger numberOfDiscoveredFlows = new AtomicInteger();
+
+    /**
+     * Stream of the taint flows discovered during the analysis,
+     * or null if streaming is disabled.
+     */
+    @Nullable
+    private final TaintFlowStream flowStream;
+
+    /**
+     * Map from a variable to the sink arguments it is passed to.
+     * Only used when taint flows are discovered during the analysis,
+     * i.e., streaming taint flows or {@link #maxFlows} is given.
+     */
+    private final Map<CSVar, Set<SinkArg>> sinkArgs = Maps.newConcurrentMap();
+
+    /**
+     * Map from a variable to the taint transfer edges from it.
+     */
+    private final Map<CSVar, Set<TransferEdge>> transferEdges =
+            Maps.newConcurrentMap();
+
     public TaintAnalysiss(Solver solver) {
-        manager = new TaintManager();
         this.solver = solver;
         csManager = solver.getCSManager();
         emptyContext = solver.getContextSelector().getEmptyContext();
-        config = TaintConfig.readConfig(
-                solver.getOptions().getString("taint-config"),
-                World.get().getClassHierarchy(),
-                World.get().getTypeSystem());
-        logger.info(config);
+        List<String> paths = List.of(solver.getOptions()
+                .getString("taint-config").split(","));
+        packIds = new ArrayList<>(paths.size());
+        configs = new ArrayList<>(paths.size());
+        String cacheDir = solver.getOptions().getString("taint-config-cache");
+        for (String path : paths) {
+            TaintConfig config = cacheDir != null ?
+                    TaintConfigCache.readConfig(path.strip(), Path.of(cacheDir),
+                            World.get().getOptions(),
+                            World.get().getClassHierarchy(),
+                            World.get().getTypeSystem()) :
+                    TaintConfig.readConfig(path.strip(),
+                            World.get().getClassHierarchy(),
+                            World.get().getTypeSystem());
+            packIds.add(getPackId(path.strip()));
+            configs.add(config);
+            logger.info(config);
+        }
+        manager = new TaintManager(packIds);
+        sparse = solver.getOptions().getBooleanOrDefault("sparse-taint", false);
+        summary = solver.getOptions().getBooleanOrDefault("taint-summary", false);
+        String stream = solver.getOptions().getString("taint-flow-stream");
+        flowStream = stream != null ? new TaintFlowStream(Path.of(stream)) : null;
+        Object max = solver.getOptions().get("max-taint-flows");
+        maxFlows = max != null ? ((Number) max).intValue() : 0;
+        sinkRelevantMethods = solver.getOptions()
+                .getBooleanOrDefault("sink-pruning", false) ?
+                computeSinkRelevantMethods() : null;
+    }
+
+    /**
+     * @return id of the rule pack given by the config file, i.e., the file
+     * name without extension, which is made unique among the rule packs.
+     */
+    private String getPackId(String path) {
+        String name = Path.of(path).getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        String id = dot > 0 ? name.substring(0, dot) : name;
+        return packIds.contains(id) ? id + "#" + packIds.size() : id;
     }
 
-    // TODO - finish me
+    /**
+     * Computes the methods relevant to sinks on the CHA call graph, i.e.,
+     * the methods which may reach a call to a sink method (by traversing
+     * the call graph backward from the callers of the sink methods), and
+     * the methods whose results are returned to them (by traversing
+     * the call graph forward from the former via the call sites with
+     * left-hand-side variables), as the result of a source call may be
+     * returned to a caller which reaches a sink.
+     */
+    private Set<JMethod> computeSinkRelevantMethods() {
+        CallGraph<Invoke, JMethod> callGraph = new CHABuilder().build();
+        Set<JMethod> reachable = Sets.newSet();
+        Deque<JMethod> queue = new ArrayDeque<>();
+        callGraph.edges().forEach(edge -> {
+            JMethod caller = edge.getCallSite().getContainer();
+            if (isSink(edge.getCallee()) && reachable.add(caller)) {
+                queue.add(caller);
+            }
+        });
+        while (!queue.isEmpty()) {
+            for (Invoke callSite : callGraph.getCallersOf(queue.poll())) {
+                JMethod caller = callSite.getContainer();
+                if (reachable.add(caller)) {
+                    queue.add(caller);
+                }
+            }
+        }
+        Set<JMethod> relevant = Sets.newSet();
+        relevant.addAll(reachable);
+        queue.addAll(reachable);
+        while (!queue.isEmpty()) {
+            callGraph.callSitesIn(queue.poll())
+                    .filter(callSite -> callSite.getLValue() != null)
+                    .forEach(callSite -> {
+                        for (JMethod callee : callGraph.getCalleesOf(callSite)) {
+                            if (relevant.add(callee)) {
+                                queue.add(callee);
+                            }
+                        }
+                    });
+        }
+        logger.info("{} of {} reachable methods may reach sinks," +
+                        " {} methods are relevant to sinks",
+                reachable.size(), callGraph.getNumberOfMethods(), relevant.size());
+        return relevant;
+    }
+
+    private boolean isSink(JMethod method) {
+        for (TaintConfig config : configs) {
+            if (!config.getSinks(method).isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean isSparse() {
+        return sparse;
+    }
+
+    /**
+     * Handles the sources and taint transfers of the callee of
+     * a new call edge. All lookups are single hash lookups on
+     * the indexes of {@link TaintConfig}.
+     */
+    public void onNewCallEdge(Edge<CSCallSite, CSMethod> edge) {
+        CSCallSite csCallSite = edge.getCallSite();
+        JMethod callee = edge.getCallee().getMethod();
+        Invoke callSite = csCallSite.getCallSite();
+        Context context = csCallSite.getContext();
+        Var lhs = callSite.getLValue();
+        if (lhs != null && (sinkRelevantMethods == null ||
+                sinkRelevantMethods.contains(callSite.getContainer()))) {
+            PointsToSet taints = null;
+            for (int pack = 0; pack < configs.size(); ++pack) {
+                for (Source source : configs.get(pack).getSources(callee)) {
+                    if (taints == null) {
+                        taints = PointsToSetFactory.make();
+                    }
+                    taints.addObject(makeTaint(pack, callSite, source.type()));
+                }
+            }
+            if (taints != null) {
+                flowTaints(csManager.getCSVar(context, lhs), taints);
+            }
+        }
+        addTransferEdges(context, callSite, callee);
+        if (flowStream != null || maxFlows > 0) {
+            addSinkArgs(context, callSite, callee);
+        }
+    }
+
+    /**
+     * Records the arguments of the sink call, and reports the taint
+     * flows to the arguments which are pointing to taint objects.
+     */
+    private void addSinkArgs(Context context, Invoke callSite, JMethod callee) {
+        for (int pack = 0; pack < configs.size(); ++pack) {
+            for (Sink sink : configs.get(pack).getSinks(callee)) {
+                CSVar arg = csManager.getCSVar(context,
+                        callSite.getInvokeExp().getArg(sink.index()));
+                SinkArg sinkArg = new SinkArg(callSite, sink.index(), pack);
+                // must be recorded before reading the taints, so that
+                // concurrently added taints are reported by either side
+                if (sinkArgs.computeIfAbsent(arg, v -> Sets.newConcurrentSet())
+                        .add(sinkArg)) {
+                    reportFlows(sinkArg, getTaints(arg));
+                }
+            }
+        }
+    }
+
+    /**
+     * Reports the taint flows caused by new taint objects pointed to
+     * by given variable.
+     */
+    private void onNewTaints(CSVar csVar, PointsToSet taints) {
+        Set<SinkArg> args = sinkArgs.get(csVar);
+        if (args != null) {
+            args.forEach(arg -> reportFlows(arg, taints));
+        }
+    }
+
+    private void reportFlows(SinkArg sinkArg, PointsToSet taints) {
+        for (CSObj csObj : taints) {
+            Obj obj = csObj.getObject();
+            if (manager.isTaint(obj) && manager.getPack(obj) == sinkArg.pack()) {
+                TaintFlow taintFlow = new TaintFlow(manager.getSourceCall(obj),
+                        sinkArg.sinkCall(), sinkArg.index());
+                if (flowStream != null) {
+                    flowStream.report(packIds.get(sinkArg.pack()), taintFlow);
+                }
+                if (maxFlows > 0 && discoveredFlows.add(taintFlow) &&
+                        numberOfDiscoveredFlows.incrementAndGet() == maxFlows) {
+                    logger.info("Found {} taint flow(s), stopping the analysis",
+                            maxFlows);
+                    solver.stop();
+                }
+            }
+        }
+    }
+
+    private void addTransferEdges(Context context, Invoke callSite, JMethod callee) {
+        for (int pack = 0; pack < configs.size(); ++pack) {
+            for (TaintTransfer transfer : configs.get(pack).getTransfers(callee)) {
+                Var from = getVar(callSite, transfer.from());
+                Var to = getVar(callSite, transfer.to());
+                if (from != null && to != null) {
+                    addTransferEdge(csManager.getCSVar(context, from),
+                            new TransferEdge(csManager.getCSVar(context, to),
+                                    transfer.type(), pack));
+                }
+            }
+        }
+    }
+
+    /**
+     * Propagates the new taint objects pointed to by given variable
+     * along the taint transfer edges from the variable.
+     */
+    public void onNewPointsToSet(CSVar csVar, PointsToSet pts) {
+        if (flowStream != null || maxFlows > 0) {
+            onNewTaints(csVar, pts);
+        }
+        if (summary && !taintedVars.contains(csVar) && hasTaint(pts)) {
+            // must be marked before reading the transfer edges, so that
+            // concurrently added edges are handled by either side
+            taintedVars.add(csVar);
+        }
+        Set<TransferEdge> edges = transferEdges.get(csVar);
+        if (edges != null) {
+            edges.forEach(edge -> transferTaints(pts, edge));
+        }
+    }
+
+    private void addTransferEdge(CSVar from, TransferEdge edge) {
+        if (transferEdges.computeIfAbsent(from, v -> Sets.newConcurrentSet())
+                .add(edge)) {
+            if (summary && !sparse && !taintedVars.contains(from)) {
+                // short-circuit: from-variable points to no taint objects
+                return;
+            }
+            transferTaints(getTaints(from), edge);
+        }
+    }
+
+    private boolean hasTaint(PointsToSet pts) {
+        for (CSObj csObj : pts) {
+            if (manager.isTaint(csObj.getObject())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the objects pointed to by given pointer which may be taint
+     * objects, i.e., the taint objects in sparse mode, otherwise the whole
+     * points-to set.
+     */
+    public PointsToSet getTaints(Pointer pointer) {
+        if (sparse) {
+            PointsToSet taints = taintPts.get(pointer);
+            return taints != null ? taints : PointsToSetFactory.make();
+        } else {
+            return pointer.getPointsToSet();
+        }
+    }
+
+    /**
+     * Makes given taint objects flow to the pointer.
+     */
+    private void flowTaints(Pointer pointer, PointsToSet taints) {
+        if (sparse) {
+            addTaints(pointer, taints);
+        } else {
+            solver.addPointsTo(pointer, taints);
+        }
+    }
+
+    /**
+     * Adds taint objects to the pointer in sparse mode, and propagates
+     * the new ones along the PFG and taint transfer edges.
+     */
+    public void addTaints(Pointer pointer, PointsToSet taints) {
+        Deque<Pointer> pointers = new ArrayDeque<>();
+        Deque<PointsToSet> sets = new ArrayDeque<>();
+        pointers.push(pointer);
+        sets.push(taints);
+        while (!pointers.isEmpty()) {
+            Pointer p = pointers.pop();
+            PointsToSet pts = taintPts.computeIfAbsent(p,
+                    k -> PointsToSetFactory.makeConcurrent());
+            PointsToSet delta = PointsToSetFactory.make();
+            sets.pop().forEach(obj -> {
+                if (pts.addObject(obj)) {
+                    delta.addObject(obj);
+                }
+            });
+            if (delta.isEmpty()) {
+                continue;
+            }
+            solver.forEachPFGSucc(p, delta, (succ, flow) -> {
+                pointers.push(succ);
+                sets.push(flow);
+            });
+            if (p instanceof CSVar csVar) {
+                if (flowStream != null || maxFlows > 0) {
+                    onNewTaints(csVar, delta);
+                }
+                resolveTaintCalls(csVar, delta);
+                // transfer edges added by resolveTaintCalls() are included
+                Set<TransferEdge> edges = transferEdges.get(csVar);
+                if (edges != null) {
+                    edges.forEach(edge -> {
+                        PointsToSet transferred = transfer(delta, edge);
+                        if (transferred != null) {
+                            pointers.push(edge.target());
+                            sets.push(transferred);
+                        }
+                    });
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds the taint transfer edges for the calls on given variable, whose
+     * callees are resolved with the types of the taint objects.
+     */
+    private void resolveTaintCalls(CSVar csVar, PointsToSet taints) {
+        List<Invoke> invokes = csVar.getVar().getInvokes();
+        if (invokes.isEmpty()) {
+            return;
+        }
+        Set<Type> types = Sets.newHybridSet();
+        taints.forEach(obj -> types.add(obj.getObject().getType()));
+        for (Invoke callSite : invokes) {
+            for (Type type : types) {
+                JMethod callee = solver.dispatch(type, callSite);
+                if (callee != null) {
+                    addTransferEdges(csVar.getContext(), callSite, callee);
+                }
+            }
+        }
+    }
+
+    private void transferTaints(PointsToSet pts, TransferEdge edge) {
+        PointsToSet taints = transfer(pts, edge);
+        if (taints != null) {
+            flowTaints(edge.target(), taints);
+        }
+    }
+
+    /**
+     * @return the taint objects transferred from the ones in pts
+     * along given edge, or null if no taint objects are transferred.
+     */
+    @Nullable
+    private PointsToSet transfer(PointsToSet pts, TransferEdge edge) {
+        PointsToSet taints = null;
+        for (CSObj csObj : pts) {
+            Obj obj = csObj.getObject();
+            if (manager.isTaint(obj) && manager.getPack(obj) == edge.pack()) {
+                if (taints == null) {
+                    taints = PointsToSetFactory.make();
+                }
+                taints.addObject(summary ?
+                        transferSummary(csObj, edge) :
+                        makeTaint(edge.pack(), manager.getSourceCall(obj), edge.type()));
+            }
+        }
+        return taints;
+    }
+
+    /**
+     * @return the taint object transferred from given taint object along
+     * given edge. The transferred taint objects are cached for each taint
+     * object and type, so that transfers of the same taint object reuse
+     * the same result without going through {@link TaintManager}.
+     */
+    private CSObj transferSummary(CSObj taint, TransferEdge edge) {
+        Map<Type, CSObj> summaries = transferSummaries.computeIfAbsent(
+                taint, k -> Maps.newConcurrentMap());
+        CSObj result = summaries.get(edge.type());
+        if (result != null) {
+            reusedTaints.increment();
+            return result;
+        }
+        return summaries.computeIfAbsent(edge.type(), type -> makeTaint(
+                edge.pack(), manager.getSourceCall(taint.getObject()), type));
+    }
+
+    /**
+     * @return the taint object (in empty heap context) of given rule pack
+     * for given source call and type.
+     */
+    private CSObj makeTaint(int pack, Invoke source, Type type) {
+        return csManager.getCSObj(emptyContext,
+                manager.makeTaint(pack, source, type));
+    }
+
+    /**
+     * @return the variable at given index of the call site,
+     * or null if the variable is absent.
+     */
+    @Nullable
+    private static Var getVar(Invoke callSite, int index) {
+        InvokeExp invokeExp = callSite.getInvokeExp();
+        return switch (index) {
+            case TaintTransfer.BASE ->
+                    invokeExp instanceof InvokeInstanceExp instanceExp ?
+                            instanceExp.getBase() : null;
+            case TaintTransfer.RESULT -> callSite.getLValue();
+            default -> index < invokeExp.getArgCount() ?
+                    invokeExp.getArg(index) : null;
+        };
+    }
+
+    /**
+     * Represents the taint transfer from a variable to target variable,
+     * which creates taint objects of given type for the taint objects
+     * of given rule pack.
+     */
+    private record TransferEdge(CSVar target, Type type, int pack) {
+    }
+
+    /**
+     * Represents an argument of a sink call, which is sensitive
+     * to the taint objects of given rule pack.
+     */
+    private record SinkArg(Invoke sinkCall, int index, int pack) {
+    }
+
+    /**
+     * Applies the action to each successor of given pointer through which
+     * the taint objects in taints can flow, i.e., the PFG successors and
+     * the targets of the taint transfer edges of given rule pack from
+     * the pointer.
+     */
+    void forEachTaintSucc(Pointer pointer, PointsToSet taints, int pack,
+                          Consumer<Pointer> action) {
+        if (taints.isEmpty()) {
+            return;
+        }
+        solver.forEachPFGSucc(pointer, taints, (succ, flow) -> action.accept(succ));
+        if (pointer instanceof CSVar csVar) {
+            Set<TransferEdge> edges = transferEdges.get(csVar);
+            if (edges != null) {
+                edges.forEach(edge -> {
+                    if (edge.pack() == pack) {
+                        action.accept(edge.target());
+                    }
+                });
+            }
+        }
+    }
 
     public void onFinish() {
-        Set<TaintFlow> taintFlows = collectTaintFlows();
+        if (summary) {
+            logger.info("Taint objects: {} created, {} reused by summaries",
+                    manager.getNumberOfTaints(), reusedTaints.sum());
+        }
+        List<Set<TaintFlow>> packFlows = collectTaintFlows();
+        Set<TaintFlow> taintFlows;
+        if (packFlows.size() == 1) {
+            taintFlows = packFlows.get(0);
+        } else {
+            taintFlows = new TreeSet<>();
+            Map<String, Set<TaintFlow>> flowsOfPacks = new LinkedHashMap<>();
+            for (int pack = 0; pack < packFlows.size(); ++pack) {
+                taintFlows.addAll(packFlows.get(pack));
+                flowsOfPacks.put(packIds.get(pack), packFlows.get(pack));
+                logger.info("Rule pack {}: {} taint flow(s)",
+                        packIds.get(pack), packFlows.get(pack).size());
+            }
+            solver.getResult().storeResult(RULE_PACK_FLOWS, flowsOfPacks);
+        }
         solver.getResult().storeResult(getClass().getName(), taintFlows);
+        if (flowStream != null) {
+            flowStream.close();
+        }
+        String taintPaths = solver.getOptions().getString("taint-paths");
+        if (taintPaths != null) {
+            Object maxVisits = solver.getOptions().get("taint-path-max-visits");
+            new TaintPathFinder(this, manager, csManager, maxVisits != null ?
+                    ((Number) maxVisits).intValue() : TaintPathFinder.DEFAULT_MAX_VISITS)
+                    .dumpPaths(packIds, packFlows, Path.of(taintPaths));
+        }
     }
 
-    private Set<TaintFlow> collectTaintFlows() {
-        Set<TaintFlow> taintFlows = new TreeSet<>();
+    /**
+     * Collects the taint flows of each rule pack by checking the sinks
+     * of all call edges. If the solver runs in parallel, the call edges
+     * are partitioned and checked by a fork-join pool, where each task
+     * collects taint flows into its own buffers. The buffers are merged
+     * and sorted once at the end, thus the result is the same as
+     * sequential checking.
+     *
+     * @return the taint flows of each rule pack, indexed by the rule packs.
+     */
+    private List<Set<TaintFlow>> collectTaintFlows() {
         PointerAnalysisResult result = solver.getResult();
-        // TODO - finish me
-        // You could query pointer analysis results you need via variable result.
-        return taintFlows;
+        List<Edge<CSCallSite, CSMethod>> edges =
+                result.getCSCallGraph().edges().toList();
+        SinkChecker checker = new SinkChecker(edges, 0, edges.size());
+        List<List<TaintFlow>> taintFlows;
+        int threads = solver.getThreads();
+        if (threads > 1) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                taintFlows = pool.invoke(checker);
+            } finally {
+                pool.shutdown();
+            }
+        } else {
+            taintFlows = checker.compute();
+        }
+        return taintFlows.stream()
+                .map(flows -> (Set<TaintFlow>) new TreeSet<>(flows))
+                .toList();
+    }
+
+    /**
+     * Checks the sinks of the call edges in range [from, to),
+     * and collects the taint flows of each rule pack.
+     */
+    @SuppressWarnings("serial")
+    private class SinkChecker extends RecursiveTask<List<List<TaintFlow>>> {
+
+        /**
+         * Number of call edges below which the range is checked sequentially.
+         */
+        private static final int THRESHOLD = 1024;
+
+        private final List<Edge<CSCallSite, CSMethod>> edges;
+
+        private final int from;
+
+        private final int to;
+
+        private SinkChecker(List<Edge<CSCallSite, CSMethod>> edges,
+                            int from, int to) {
+            this.edges = edges;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected List<List<TaintFlow>> compute() {
+            if (to - from > THRESHOLD && getPool() != null) {
+                int mid = (from + to) >>> 1;
+                SinkChecker left = new SinkChecker(edges, from, mid);
+                left.fork();
+                List<List<TaintFlow>> taintFlows =
+                        new SinkChecker(edges, mid, to).compute();
+                List<List<TaintFlow>> leftFlows = left.join();
+                for (int pack = 0; pack < taintFlows.size(); ++pack) {
+                    taintFlows.get(pack).addAll(leftFlows.get(pack));
+                }
+                return taintFlows;
+            }
+            List<List<TaintFlow>> taintFlows = new ArrayList<>(configs.size());
+            for (int pack = 0; pack < configs.size(); ++pack) {
+                List<TaintFlow> flows = new ArrayList<>();
+                for (int i = from; i < to; ++i) {
+                    checkSinks(pack, edges.get(i), flows);
+                }
+                taintFlows.add(flows);
+            }
+            return taintFlows;
+        }
+    }
+
+    private void checkSinks(int pack, Edge<CSCallSite, CSMethod> edge,
+                            List<TaintFlow> taintFlows) {
+        List<Sink> sinks = configs.get(pack).getSinks(edge.getCallee().getMethod());
+        if (sinks.isEmpty()) {
+            return;
+        }
+        CSCallSite csCallSite = edge.getCallSite();
+        Invoke sinkCall = csCallSite.getCallSite();
+        for (Sink sink : sinks) {
+            int index = sink.index();
+            CSVar arg = csManager.getCSVar(csCallSite.getContext(),
+                    sinkCall.getInvokeExp().getArg(index));
+            for (CSObj csObj : getTaints(arg)) {
+                Obj obj = csObj.getObject();
+                if (manager.isTaint(obj) && manager.getPack(obj) == pack) {
+                    taintFlows.add(new TaintFlow(
+                            manager.getSourceCall(obj), sinkCall, index));
+                }
+            }
+        }
     }
 }
@@ -38,15 +38,26 @@ import pascal.taie.language.classes.ClassHierarchy;
 import pascal.taie.language.classes.JMethod;
 import pascal.taie.language.type.Type;
 import pascal.taie.language.type.TypeSystem;
+import pascal.taie.util.collection.Maps;
 import pascal.taie.util.collection.Sets;
 
+import javax.annotation.Nullable;
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
 
 /**
  * Configuration for taint analysis.
+ * The methods of sources, sinks and taint transfers can be given as
+ * {@link MethodPattern}s, which are resolved against the class hierarchy
+ * when loading the configuration, so that the indexes from methods to
+ * sources, sinks and taint transfers contain only concrete methods.
  */
 class TaintConfig {
 
@@ -67,11 +78,54 @@ class TaintConfig {
      */
     private final Set<TaintTransfer> transfers;
 
-    private TaintConfig(Set<Source> sources, Set<Sink> sinks,
-                        Set<TaintTransfer> transfers) {
+    /**
+     * Map from a method to the sources of the method.
+     */
+    private final Map<JMethod, List<Source>> method2Sources;
+
+    /**
+     * Map from a method to the sinks of the method.
+     */
+    private final Map<JMethod, List<Sink>> method2Sinks;
+
+    /**
+     * Map from a method to the taint transfers of the method,
+     * which are grouped by their from and to indexes.
+     */
+    private final Map<JMethod, List<TaintTransfer>> method2Transfers;
+
+    TaintConfig(Set<Source> sources, Set<Sink> sinks,
+                Set<TaintTransfer> transfers) {
         this.sources = sources;
         this.sinks = sinks;
         this.transfers = transfers;
+        this.method2Sources = index(sources, Source::method, null);
+        this.method2Sinks = index(sinks, Sink::method,
+                Comparator.comparingInt(Sink::index));
+        this.method2Transfers = index(transfers, TaintTransfer::method,
+                Comparator.comparingInt(TaintTransfer::from)
+                        .thenComparingInt(TaintTransfer::to));
+    }
+
+    /**
+     * Builds the index from methods to the given elements.
+     *
+     * @param order the order of elements of the same method, or null
+     *              if the order does not matter.
+     */
+    private static <E> Map<JMethod, List<E>> index(
+            Set<E> elems, Function<E, JMethod> getMethod,
+            @Nullable Comparator<E> order) {
+        Map<JMethod, List<E>> index = Maps.newMap(elems.size());
+        elems.forEach(e -> index.computeIfAbsent(getMethod.apply(e),
+                k -> new ArrayList<>()).add(e));
+        index.replaceAll((m, list) -> {
+            if (order != null) {
+                list.sort(order);
+            }
+            return List.copyOf(list);
+        });
+        return index;
     }
 
     /**
@@ -119,6 +173,28 @@ class TaintConfig {
         return transfers;
     }
 
+    /**
+     * @return sources of given method.
+     */
+    List<Source> getSources(JMethod method) {
+        return method2Sources.getOrDefault(method, List.of());
+    }
+
+    /**
+     * @return sinks of given method, ordered by their indexes.
+     */
+    List<Sink> getSinks(JMethod method) {
+        return method2Sinks.getOrDefault(method, List.of());
+    }
+
+    /**
+     * @return taint transfers of given method, ordered by their
+     * from and to indexes.
+     */
+    List<TaintTransfer> getTransfers(JMethod method) {
+        return method2Transfers.getOrDefault(method, List.of());
+    }
+
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder("TaintConfig:");
@@ -149,11 +225,26 @@ class TaintConfig {
 
         private final TypeSystem typeSystem;
 
+        /**
+         * Cache of resolved method patterns, as many entries in
+         * a config file share the same method pattern.
+         */
+        private final Map<String, List<JMethod>> resolvedMethods = Maps.newMap();
+
         private Deserializer(ClassHierarchy hierarchy, TypeSystem typeSystem) {
             this.hierarchy = hierarchy;
             this.typeSystem = typeSystem;
         }
 
+        /**
+         * Resolves the methods matched by given method signature, which
+         * may be a {@link MethodPattern}.
+         */
+        private List<JMethod> resolveMethods(String methodSig) {
+            return resolvedMethods.computeIfAbsent(methodSig,
+                    sig -> MethodPattern.parse(sig).resolve(hierarchy));
+        }
+
         @Override
         public TaintConfig deserialize(JsonParser p, DeserializationContext ctxt)
                 throws IOException {
@@ -177,13 +268,14 @@ class TaintConfig {
                 Set<Source> sources = Sets.newSet(arrayNode.size());
                 for (JsonNode elem : arrayNode) {
                     String methodSig = elem.get("method").asText();
-                    JMethod method = hierarchy.getMethod(methodSig);
-                    if (method != null) {
+                    List<JMethod> methods = resolveMethods(methodSig);
+                    if (!methods.isEmpty()) {
                         // if the method (given in config file) is absent in
                         // the class hierarchy, just ignore it.
                         Type type = typeSystem.getType(
                                 elem.get("type").asText());
-                        sources.add(new Source(method, type));
+                        methods.forEach(method ->
+                                sources.add(new Source(method, type)));
                     } else {
                         logger.warn("Cannot find source method '{}'", methodSig);
                     }
@@ -207,12 +299,13 @@ class TaintConfig {
                 Set<Sink> sinks = Sets.newSet(arrayNode.size());
                 for (JsonNode elem : arrayNode) {
                     String methodSig = elem.get("method").asText();
-                    JMethod method = hierarchy.getMethod(methodSig);
-                    if (method != null) {
+                    List<JMethod> methods = resolveMethods(methodSig);
+                    if (!methods.isEmpty()) {
                         // if the method (given in config file) is absent in
                         // the class hierarchy, just ignore it.
                         int index = elem.get("index").asInt();
-                        sinks.add(new Sink(method, index));
+                        methods.forEach(method ->
+                                sinks.add(new Sink(method, index)));
                     } else {
                         logger.warn("Cannot find sink method '{}'", methodSig);
                     }
@@ -236,15 +329,16 @@ class TaintConfig {
                 Set<TaintTransfer> transfers = Sets.newSet(arrayNode.size());
                 for (JsonNode elem : arrayNode) {
                     String methodSig = elem.get("method").asText();
-                    JMethod method = hierarchy.getMethod(methodSig);
-                    if (method != null) {
+                    List<JMethod> methods = resolveMethods(methodSig);
+                    if (!methods.isEmpty()) {
                         // if the method (given in config file) is absent in
                         // the class hierarchy, just ignore it.
                         int from = TaintTransfer.toInt(elem.get("from").asText());
                         int to = TaintTransfer.toInt(elem.get("to").asText());
                         Type type = typeSystem.getType(
                                 elem.get("type").asText());
-                        transfers.add(new TaintTransfer(method, from, to, type));
+                        methods.forEach(method -> transfers.add(
+                                new TaintTransfer(method, from, to, type)));
                     } else {
                         logger.warn("Cannot find taint-transfer method '{}'", methodSig);
                     }
@@ -0,0 +1,270 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.plugin.taint;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.analysis.pta.WorldFingerprint;
+import pascal.taie.config.ConfigException;
+import pascal.taie.config.Options;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.Type;
+import pascal.taie.language.type.TypeSystem;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+
+import javax.annotation.Nullable;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Cache of resolved taint configurations.
+ * <p>
+ * A cache file holds the sources, sinks and taint transfers of a config
+ * file after the method patterns are resolved, with the methods and types
+ * recorded by their signatures. It is named by the hash of the content of
+ * the config file, and records the {@link WorldFingerprint fingerprint}
+ * of the world. On loading, the cache file is memory-mapped, and the
+ * config is decoded with exact lookups of the signatures, without parsing
+ * the YAML file or resolving patterns. The config file is parsed and
+ * the cache file is rewritten if the cache file is absent, or it is built
+ * for a different world.
+ */
+final class TaintConfigCache {
+
+    private static final Logger logger = LogManager.getLogger(TaintConfigCache.class);
+
+    private static final int MAGIC = 0x54434643; // "TCFC"
+
+    private static final int VERSION = 1;
+
+    private TaintConfigCache() {
+    }
+
+    /**
+     * Reads the taint config from the cache in given directory if possible,
+     * otherwise reads the config file and caches it.
+     *
+     * @param path     the path to the config file
+     * @param cacheDir the directory of cache files
+     * @throws ConfigException if failed to load the config file
+     */
+    static TaintConfig readConfig(String path, Path cacheDir, Options options,
+                                  ClassHierarchy hierarchy, TypeSystem typeSystem) {
+        byte[] configHash;
+        byte[] fingerprint;
+        try {
+            configHash = WorldFingerprint.hash(Files.readAllBytes(Path.of(path)));
+            // the methods matched by patterns depend on the class hierarchy
+            fingerprint = WorldFingerprint.compute(options);
+        } catch (IOException e) {
+            throw new ConfigException("Failed to read taint analysis config file " + path, e);
+        }
+        Path cacheFile = cacheDir.resolve(
+                HexFormat.of().formatHex(configHash) + ".bin");
+        if (Files.exists(cacheFile)) {
+            try {
+                TaintConfig config = load(cacheFile, fingerprint, hierarchy, typeSystem);
+                if (config != null) {
+                    logger.info("Loaded taint config {} from cache {}", path, cacheFile);
+                    return config;
+                }
+                logger.info("World changed, invalidating cache {}", cacheFile);
+            } catch (IOException | RuntimeException e) {
+                logger.warn("Failed to load taint config cache {}", cacheFile, e);
+            }
+        }
+        TaintConfig config = TaintConfig.readConfig(path, hierarchy, typeSystem);
+        try {
+            save(config, cacheFile, fingerprint);
+        } catch (IOException e) {
+            logger.warn("Failed to save taint config cache {}", cacheFile, e);
+        }
+        return config;
+    }
+
+    /**
+     * Writes the config to the cache file. The file is written to
+     * a temporary file first, and then moved to the cache file, thus
+     * concurrent runs never see a partially written cache file.
+     * The temporary file is deleted if it fails to be moved.
+     */
+    private static void save(TaintConfig config, Path cacheFile,
+                             byte[] fingerprint) throws IOException {
+        // strings (signatures of methods and types) are written once
+        // in the string table, and referenced by their indexes
+        Map<String, Integer> strings = Maps.newMap();
+        List<String> table = new ArrayList<>();
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(body);
+        out.writeInt(config.getSources().size());
+        for (Source source : config.getSources()) {
+            out.writeInt(index(strings, table, source.method().getSignature()));
+            out.writeInt(index(strings, table, source.type().getName()));
+        }
+        out.writeInt(config.getSinks().size());
+        for (Sink sink : config.getSinks()) {
+            out.writeInt(index(strings, table, sink.method().getSignature()));
+            out.writeInt(sink.index());
+        }
+        out.writeInt(config.getTransfers().size());
+        for (TaintTransfer transfer : config.getTransfers()) {
+            out.writeInt(index(strings, table, transfer.method().getSignature()));
+            out.writeInt(transfer.from());
+            out.writeInt(transfer.to());
+            out.writeInt(index(strings, table, transfer.type().getName()));
+        }
+        out.flush();
+
+        Files.createDirectories(cacheFile.getParent());
+        Path temp = Files.createTempFile(cacheFile.getParent(), "taint-config", ".tmp");
+        try {
+            try (DataOutputStream file = new DataOutputStream(
+                    Files.newOutputStream(temp))) {
+                file.writeInt(MAGIC);
+                file.writeInt(VERSION);
+                file.writeInt(fingerprint.length);
+                file.write(fingerprint);
+                file.writeInt(table.size());
+                for (String s : table) {
+                    byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+                    file.writeInt(bytes.length);
+                    file.write(bytes);
+                }
+                body.writeTo(file);
+            }
+            Files.move(temp, cacheFile, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static int index(Map<String, Integer> strings, List<String> table,
+                             String s) {
+        return strings.computeIfAbsent(s, k -> {
+            table.add(k);
+            return table.size() - 1;
+        });
+    }
+
+    /**
+     * Loads the config from the cache file.
+     *
+     * @return the loaded config, or null if the cache file was built for
+     * a different world.
+     */
+    @Nullable
+    private static TaintConfig load(Path cacheFile, byte[] fingerprint,
+                                    ClassHierarchy hierarchy,
+                                    TypeSystem typeSystem) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(cacheFile, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+            throw new IOException("Unrecognized taint config cache " + cacheFile);
+        }
+        byte[] cachedFingerprint = new byte[buffer.getInt()];
+        buffer.get(cachedFingerprint);
+        if (!Arrays.equals(cachedFingerprint, fingerprint)) {
+            return null;
+        }
+        String[] table = new String[buffer.getInt()];
+        for (int i = 0; i < table.length; ++i) {
+            byte[] bytes = new byte[buffer.getInt()];
+            buffer.get(bytes);
+            table[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+        // the methods in cache were resolved from the same world,
+        // thus absent methods indicate a corrupted cache file
+        JMethod[] methods = new JMethod[table.length];
+        Type[] types = new Type[table.length];
+        int nSources = buffer.getInt();
+        Set<Source> sources = Sets.newSet(nSources);
+        for (int i = 0; i < nSources; ++i) {
+            JMethod method = getMethod(methods, table, buffer.getInt(), hierarchy);
+            Type type = getType(types, table, buffer.getInt(), typeSystem);
+            sources.add(new Source(method, type));
+        }
+        int nSinks = buffer.getInt();
+        Set<Sink> sinks = Sets.newSet(nSinks);
+        for (int i = 0; i < nSinks; ++i) {
+            JMethod method = getMethod(methods, table, buffer.getInt(), hierarchy);
+            sinks.add(new Sink(method, buffer.getInt()));
+        }
+        int nTransfers = buffer.getInt();
+        Set<TaintTransfer> transfers = Sets.newSet(nTransfers);
+        for (int i = 0; i < nTransfers; ++i) {
+            JMethod method = getMethod(methods, table, buffer.getInt(), hierarchy);
+            int from = buffer.getInt();
+            int to = buffer.getInt();
+            Type type = getType(types, table, buffer.getInt(), typeSystem);
+            transfers.add(new TaintTransfer(method, from, to, type));
+        }
+        return new TaintConfig(Collections.unmodifiableSet(sources),
+                Collections.unmodifiableSet(sinks),
+                Collections.unmodifiableSet(transfers));
+    }
+
+    private static JMethod getMethod(JMethod[] methods, String[] table,
+                                     int index, ClassHierarchy hierarchy) throws IOException {
+        JMethod method = methods[index];
+        if (method == null) {
+            method = hierarchy.getMethod(table[index]);
+            if (method == null) {
+                throw new IOException("Cannot find cached method " + table[index]);
+            }
+            methods[index] = method;
+        }
+        return method;
+    }
+
+    private static Type getType(Type[] types, String[] table,
+                                int index, TypeSystem typeSystem) {
+        Type type = types[index];
+        if (type == null) {
+            type = typeSystem.getType(table[index]);
+            types[index] = type;
+        }
+        return type;
+    }
+}
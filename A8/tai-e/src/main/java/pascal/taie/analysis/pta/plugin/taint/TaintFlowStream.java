@@ -0,0 +1,209 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.plugin.taint;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.analysis.graph.callgraph.CallGraphs;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.collection.Sets;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Writes taint flows to a file as soon as they are discovered.
+ * <p>
+ * Reporting a flow never blocks the analysis: flows are deduplicated via
+ * a concurrent set and enqueued, and a dedicated writer thread drains the
+ * queue and flushes the file after each batch, so that the flows found
+ * so far are visible to other processes while the analysis is running.
+ * If the file name ends with ".sarif", the flows are written as results
+ * of a SARIF log, otherwise as JSON lines.
+ */
+class TaintFlowStream implements AutoCloseable {
+
+    private static final Logger logger = LogManager.getLogger(TaintFlowStream.class);
+
+    /**
+     * Marks the end of the queue.
+     */
+    private static final Report END = new Report("", null);
+
+    private final Path output;
+
+    private final boolean sarif;
+
+    private final Set<Report> reported = Sets.newConcurrentSet();
+
+    private final BlockingQueue<Report> queue = new LinkedBlockingQueue<>();
+
+    private final Thread writerThread;
+
+    /**
+     * Error occurred in the writer thread.
+     */
+    private volatile IOException error;
+
+    TaintFlowStream(Path output) {
+        this.output = output;
+        this.sarif = output.getFileName().toString().endsWith(".sarif");
+        writerThread = new Thread(this::write, "taint-flow-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * Reports a taint flow of given rule pack. Flows that have been
+     * reported are ignored.
+     */
+    void report(String pack, TaintFlow taintFlow) {
+        Report report = new Report(pack, taintFlow);
+        if (reported.add(report)) {
+            queue.add(report);
+        }
+    }
+
+    private void write() {
+        try (JsonGenerator gen = new JsonFactory().createGenerator(
+                Files.newBufferedWriter(output, StandardCharsets.UTF_8))) {
+            if (sarif) {
+                gen.useDefaultPrettyPrinter();
+                gen.writeStartObject();
+                gen.writeStringField("version", "2.1.0");
+                gen.writeStringField("$schema",
+                        "https://json.schemastore.org/sarif-2.1.0.json");
+                gen.writeArrayFieldStart("runs");
+                gen.writeStartObject();
+                gen.writeObjectFieldStart("tool");
+                gen.writeObjectFieldStart("driver");
+                gen.writeStringField("name", "Tai-e");
+                gen.writeEndObject();
+                gen.writeEndObject();
+                gen.writeArrayFieldStart("results");
+                gen.flush();
+            } else {
+                // each flow is written in a line, thus no separators
+                // between the flows
+                gen.setRootValueSeparator(null);
+            }
+            List<Report> batch = new ArrayList<>();
+            while (true) {
+                batch.add(queue.take());
+                queue.drainTo(batch);
+                for (Report report : batch) {
+                    if (report == END) {
+                        if (sarif) {
+                            gen.writeEndArray(); // results
+                            gen.writeEndObject();
+                            gen.writeEndArray(); // runs
+                            gen.writeEndObject();
+                            gen.writeRaw('\n');
+                        }
+                        return;
+                    }
+                    if (sarif) {
+                        writeSarif(gen, report);
+                    } else {
+                        writeJson(gen, report);
+                        gen.writeRaw('\n');
+                    }
+                }
+                gen.flush();
+                batch.clear();
+            }
+        } catch (IOException e) {
+            error = e;
+            logger.error("Failed to write taint flows to {}", output, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void writeJson(JsonGenerator gen, Report report) throws IOException {
+        TaintFlow flow = report.taintFlow();
+        gen.writeStartObject();
+        gen.writeStringField("rule", report.pack());
+        gen.writeStringField("source", CallGraphs.toString(flow.sourceCall()));
+        gen.writeStringField("sink", CallGraphs.toString(flow.sinkCall()));
+        gen.writeNumberField("index", flow.index());
+        gen.writeEndObject();
+    }
+
+    private static void writeSarif(JsonGenerator gen, Report report) throws IOException {
+        TaintFlow flow = report.taintFlow();
+        Invoke sinkCall = flow.sinkCall();
+        gen.writeStartObject();
+        gen.writeStringField("ruleId", report.pack());
+        gen.writeStringField("level", "error");
+        gen.writeObjectFieldStart("message");
+        gen.writeStringField("text", flow.toString());
+        gen.writeEndObject();
+        gen.writeArrayFieldStart("locations");
+        gen.writeStartObject();
+        gen.writeArrayFieldStart("logicalLocations");
+        gen.writeStartObject();
+        gen.writeStringField("fullyQualifiedName",
+                sinkCall.getContainer().getSignature());
+        gen.writeStringField("kind", "function");
+        gen.writeEndObject();
+        gen.writeEndArray();
+        gen.writeEndObject();
+        gen.writeEndArray();
+        gen.writeObjectFieldStart("properties");
+        gen.writeNumberField("sinkLine", sinkCall.getLineNumber());
+        gen.writeEndObject();
+        gen.writeEndObject();
+    }
+
+    /**
+     * Waits for the reported flows to be written and closes the file.
+     *
+     * @throws AnalysisException if failed to write the flows.
+     */
+    @Override
+    public void close() {
+        queue.add(END);
+        try {
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (error != null) {
+            throw new AnalysisException("Failed to write taint flows to " + output, error);
+        }
+    }
+
+    private record Report(String pack, TaintFlow taintFlow) {
+    }
+}
@@ -30,25 +30,74 @@ import pascal.taie.util.AnalysisException;
 import pascal.taie.util.collection.Maps;
 import pascal.taie.util.collection.TwoKeyMap;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
 /**
  * Manages taint objects.
+ * <p>
+ * When multiple rule packs are analyzed together, taint objects are
+ * tagged with the index of their rule pack, which is encoded in the
+ * description of the objects, so that the taint objects of different
+ * rule packs are always distinct.
  */
 class TaintManager {
 
     private static final String TAINT_DESC = "TaintObj";
 
-    private final TwoKeyMap<Invoke, Type, Obj> taints = Maps.newTwoKeyMap();
+    /**
+     * Descriptions of the taint objects of each rule pack.
+     */
+    private final String[] descs;
+
+    /**
+     * Map from descriptions of taint objects to the rule packs.
+     */
+    private final Map<String, Integer> desc2Pack = Maps.newMap();
+
+    /**
+     * Taint objects of each rule pack.
+     */
+    private final List<TwoKeyMap<Invoke, Type, Obj>> taints;
+
+    /**
+     * @param packIds ids of the rule packs.
+     */
+    TaintManager(List<String> packIds) {
+        int n = packIds.size();
+        descs = new String[n];
+        taints = new ArrayList<>(n);
+        for (int i = 0; i < n; ++i) {
+            // keep the plain description for single rule pack
+            descs[i] = n == 1 ? TAINT_DESC : TAINT_DESC + "[" + packIds.get(i) + "]";
+            desc2Pack.put(descs[i], i);
+            taints.add(Maps.newTwoKeyMap());
+        }
+    }
 
     /**
-     * Makes a taint object for given source and type.
+     * Makes a taint object of given rule pack for given source and type.
      *
+     * @param pack   index of the rule pack
      * @param source invocation to the source method, i.e., source call
      * @param type   type of the taint object
-     * @return the taint object for given source and type.
+     * @return the taint object for given rule pack, source and type.
      */
-    Obj makeTaint(Invoke source, Type type) {
-        return taints.computeIfAbsent(source, type,
-                (s, t) -> new MockObj(TAINT_DESC, s, t));
+    synchronized Obj makeTaint(int pack, Invoke source, Type type) {
+        return taints.get(pack).computeIfAbsent(source, type,
+                (s, t) -> new MockObj(descs[pack], s, t));
+    }
+
+    /**
+     * @return the number of taint objects created by this manager.
+     */
+    synchronized int getNumberOfTaints() {
+        int count = 0;
+        for (TwoKeyMap<Invoke, Type, Obj> packTaints : taints) {
+            count += packTaints.size();
+        }
+        return count;
     }
 
     /**
@@ -56,7 +105,18 @@ class TaintManager {
      */
     boolean isTaint(Obj obj) {
         return obj instanceof MockObj &&
-                ((MockObj) obj).getDescription().equals(TAINT_DESC);
+                desc2Pack.containsKey(((MockObj) obj).getDescription());
+    }
+
+    /**
+     * @return the index of the rule pack of given taint object.
+     * @throws AnalysisException if given object is not a taint object.
+     */
+    int getPack(Obj obj) {
+        if (isTaint(obj)) {
+            return desc2Pack.get(((MockObj) obj).getDescription());
+        }
+        throw new AnalysisException(obj + " is not a taint object");
     }
 
     /**
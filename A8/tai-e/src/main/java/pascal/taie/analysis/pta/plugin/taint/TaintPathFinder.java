@@ -0,0 +1,250 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.plugin.taint;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.analysis.pta.core.cs.element.CSManager;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.CSVar;
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.analysis.pta.pts.PointsToSet;
+import pascal.taie.analysis.pta.pts.PointsToSetFactory;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.collection.Maps;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reconstructs the witness paths of taint flows on demand.
+ * <p>
+ * For a taint flow of a rule pack, the finder searches from the result
+ * variables of the source call along the PFG edges and the taint transfer
+ * edges of the rule pack, and visits only the pointers that point to
+ * the taint objects of the rule pack created by the source call.
+ * As the search is breadth-first, the first path reaching the argument
+ * of the sink call is a shortest one.
+ * <p>
+ * The search of a flow assigns consecutive int ids to the visited
+ * pointers, and records the predecessor of each pointer by its id in
+ * an int array. As the pointers are visited in the order of their ids,
+ * the ids also serve as the queue of the search. The search stops after
+ * visiting the given maximum number of pointers (if no path is found among
+ * them), which bounds its memory, and the memory is released before
+ * searching the next flow.
+ */
+class TaintPathFinder {
+
+    private static final Logger logger = LogManager.getLogger(TaintPathFinder.class);
+
+    /**
+     * Default maximum number of pointers visited by the search of a path.
+     */
+    static final int DEFAULT_MAX_VISITS = 1_000_000;
+
+    private final TaintAnalysiss taintAnalysis;
+
+    private final TaintManager manager;
+
+    private final CSManager csManager;
+
+    private final int maxVisits;
+
+    TaintPathFinder(TaintAnalysiss taintAnalysis, TaintManager manager,
+                    CSManager csManager, int maxVisits) {
+        this.taintAnalysis = taintAnalysis;
+        this.manager = manager;
+        this.csManager = csManager;
+        this.maxVisits = maxVisits;
+    }
+
+    /**
+     * @param pack index of the rule pack which reports the taint flow
+     * @return a shortest path of pointers from the source to the sink
+     * of given taint flow, an empty list if no path is found, or null
+     * if the search stops after visiting the maximum number of pointers.
+     */
+    @Nullable
+    List<Pointer> findPath(TaintFlow taintFlow, int pack) {
+        Invoke source = taintFlow.sourceCall();
+        Var lhs = source.getLValue();
+        if (lhs == null) {
+            return List.of();
+        }
+        Var arg = taintFlow.sinkCall().getInvokeExp().getArg(taintFlow.index());
+        Set<Pointer> targets = Set.copyOf(csManager.getCSVarsOf(arg));
+        Visits visits = new Visits();
+        for (CSVar csVar : csManager.getCSVarsOf(lhs)) {
+            if (!getTaints(csVar, source, pack).isEmpty()) {
+                visits.add(csVar, Visits.NO_PARENT);
+            }
+        }
+        for (int id = 0; id < visits.size(); ++id) {
+            Pointer pointer = visits.getPointer(id);
+            if (targets.contains(pointer)) {
+                return visits.getPath(id);
+            }
+            int parent = id;
+            taintAnalysis.forEachTaintSucc(pointer,
+                    getTaints(pointer, source, pack), pack, succ -> {
+                        if (!visits.contains(succ) &&
+                                !getTaints(succ, source, pack).isEmpty()) {
+                            if (visits.size() < maxVisits) {
+                                visits.add(succ, parent);
+                            } else {
+                                visits.truncated = true;
+                            }
+                        }
+                    });
+        }
+        if (visits.truncated) {
+            logger.warn("Stopped searching path of {} after visiting" +
+                    " {} pointers (taint-path-max-visits)", taintFlow, maxVisits);
+            return null;
+        }
+        return List.of();
+    }
+
+    /**
+     * @return the taint objects of given rule pack and source call
+     * pointed to by the pointer.
+     */
+    private PointsToSet getTaints(Pointer pointer, Invoke source, int pack) {
+        PointsToSet taints = PointsToSetFactory.make();
+        for (CSObj csObj : taintAnalysis.getTaints(pointer)) {
+            Obj obj = csObj.getObject();
+            if (manager.isTaint(obj) && manager.getPack(obj) == pack &&
+                    manager.getSourceCall(obj).equals(source)) {
+                taints.addObject(csObj);
+            }
+        }
+        return taints;
+    }
+
+    /**
+     * Writes the taint flows with their paths to given file. Each path
+     * is written once it is found, thus the paths are never held
+     * in memory together. If there are multiple rule packs, each flow
+     * is prefixed with the id of its rule pack.
+     *
+     * @param packIds   ids of the rule packs
+     * @param packFlows taint flows of each rule pack, indexed by the rule packs
+     */
+    void dumpPaths(List<String> packIds, List<Set<TaintFlow>> packFlows,
+                   Path output) {
+        try (Writer out = Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+            for (int pack = 0; pack < packFlows.size(); ++pack) {
+                for (TaintFlow taintFlow : packFlows.get(pack)) {
+                    if (packFlows.size() > 1) {
+                        out.write("[" + packIds.get(pack) + "] ");
+                    }
+                    out.write(taintFlow.toString());
+                    out.write('\n');
+                    List<Pointer> path = findPath(taintFlow, pack);
+                    if (path == null) {
+                        continue;
+                    }
+                    if (path.isEmpty()) {
+                        logger.warn("Cannot find path of {}", taintFlow);
+                    }
+                    for (Pointer pointer : path) {
+                        out.write("  ");
+                        out.write(pointer.toString());
+                        out.write('\n');
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new AnalysisException("Failed to dump taint paths to " + output, e);
+        }
+    }
+
+    /**
+     * Pointers visited by the search of a path, indexed by the ids
+     * assigned in the order of visiting.
+     */
+    private static class Visits {
+
+        private static final int NO_PARENT = -1;
+
+        private final Map<Pointer, Integer> ids = Maps.newMap();
+
+        private final List<Pointer> pointers = new ArrayList<>();
+
+        /**
+         * parents[i] is the id of the predecessor of pointer i.
+         */
+        private int[] parents = new int[16];
+
+        /**
+         * Whether some pointers are not visited due to the maximum
+         * number of visits.
+         */
+        private boolean truncated;
+
+        private void add(Pointer pointer, int parent) {
+            int id = pointers.size();
+            ids.put(pointer, id);
+            pointers.add(pointer);
+            if (id == parents.length) {
+                parents = Arrays.copyOf(parents, id * 2);
+            }
+            parents[id] = parent;
+        }
+
+        private boolean contains(Pointer pointer) {
+            return ids.containsKey(pointer);
+        }
+
+        private Pointer getPointer(int id) {
+            return pointers.get(id);
+        }
+
+        private int size() {
+            return pointers.size();
+        }
+
+        private List<Pointer> getPath(int end) {
+            List<Pointer> path = new ArrayList<>();
+            for (int id = end; id != NO_PARENT; id = parents[id]) {
+                path.add(pointers.get(id));
+            }
+            Collections.reverse(path);
+            return path;
+        }
+    }
+}
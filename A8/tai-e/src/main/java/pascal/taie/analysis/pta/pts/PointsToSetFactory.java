@@ -35,6 +35,8 @@ public class PointsToSetFactory {
 
     private static final Supplier<Set<CSObj>> setFactory = Sets::newHybridSet;
 
+    private static final Supplier<Set<CSObj>> concurrentSetFactory = Sets::newConcurrentSet;
+
     public static PointsToSet make() {
         return new DelegatePointsToSet(setFactory.get());
     }
@@ -47,4 +49,13 @@ public class PointsToSetFactory {
         set.addObject(obj);
         return set;
     }
+
+    /**
+     * Makes a points-to set which can be modified by multiple threads
+     * simultaneously. {@link PointsToSet#addObject(CSObj)} of the
+     * returned set is atomic.
+     */
+    public static PointsToSet makeConcurrent() {
+        return new DelegatePointsToSet(concurrentSetFactory.get());
+    }
 }
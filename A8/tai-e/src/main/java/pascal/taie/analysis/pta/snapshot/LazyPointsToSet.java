@@ -0,0 +1,109 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.snapshot;
+
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.pts.PointsToSet;
+import pascal.taie.analysis.pta.pts.PointsToSetFactory;
+
+import java.nio.ByteBuffer;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Points-to set loaded from a snapshot, which is decoded from
+ * the mapped snapshot file on first access.
+ */
+class LazyPointsToSet implements PointsToSet {
+
+    private final ByteBuffer buffer;
+
+    private final int offset;
+
+    private final CSObj[] objs;
+
+    private volatile PointsToSet pts;
+
+    LazyPointsToSet(ByteBuffer buffer, int offset, CSObj[] objs) {
+        this.buffer = buffer;
+        this.offset = offset;
+        this.objs = objs;
+    }
+
+    private PointsToSet get() {
+        PointsToSet result = pts;
+        if (result == null) {
+            synchronized (this) {
+                result = pts;
+                if (result == null) {
+                    result = PointsToSetFactory.make();
+                    PointsToSet decoded = result;
+                    PointerAnalysisSnapshot.decodePointsToSet(buffer, offset,
+                            id -> decoded.addObject(objs[id]));
+                    pts = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public boolean addObject(CSObj obj) {
+        return get().addObject(obj);
+    }
+
+    @Override
+    public boolean addAll(PointsToSet pts) {
+        return get().addAll(pts);
+    }
+
+    @Override
+    public boolean contains(CSObj obj) {
+        return get().contains(obj);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return get().isEmpty();
+    }
+
+    @Override
+    public int size() {
+        return get().size();
+    }
+
+    @Override
+    public Set<CSObj> getObjects() {
+        return get().getObjects();
+    }
+
+    @Override
+    public Stream<CSObj> objects() {
+        return get().objects();
+    }
+
+    @Override
+    public String toString() {
+        return get().toString();
+    }
+}
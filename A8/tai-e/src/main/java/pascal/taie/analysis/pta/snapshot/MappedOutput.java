@@ -0,0 +1,110 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.snapshot;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Sequential writer of a file via memory-mapped regions, which are
+ * mapped on demand as the file grows.
+ */
+final class MappedOutput implements Closeable {
+
+    private static final int REGION_SIZE = 64 << 20;
+
+    private final FileChannel channel;
+
+    private MappedByteBuffer buffer;
+
+    /**
+     * File position of the start of {@link #buffer}.
+     */
+    private long regionStart;
+
+    MappedOutput(Path path) throws IOException {
+        channel = FileChannel.open(path, CREATE, READ, WRITE, TRUNCATE_EXISTING);
+        map(0);
+    }
+
+    private void map(long position) throws IOException {
+        if (buffer != null) {
+            buffer.force();
+        }
+        regionStart = position;
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, position, REGION_SIZE);
+    }
+
+    private void ensureRemaining(int n) throws IOException {
+        if (buffer.remaining() < n) {
+            map(position());
+        }
+    }
+
+    long position() {
+        return regionStart + buffer.position();
+    }
+
+    void putByte(int b) throws IOException {
+        ensureRemaining(Byte.BYTES);
+        buffer.put((byte) b);
+    }
+
+    void putInt(int i) throws IOException {
+        ensureRemaining(Integer.BYTES);
+        buffer.putInt(i);
+    }
+
+    void putLong(long l) throws IOException {
+        ensureRemaining(Long.BYTES);
+        buffer.putLong(l);
+    }
+
+    void putString(String s) throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        putInt(bytes.length);
+        ensureRemaining(bytes.length);
+        buffer.put(bytes);
+    }
+
+    /**
+     * Flushes the written content and truncates the file to its size.
+     */
+    @Override
+    public void close() throws IOException {
+        long size = position();
+        buffer.force();
+        buffer = null;
+        channel.truncate(size);
+        channel.close();
+    }
+}
@@ -0,0 +1,761 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.snapshot;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.World;
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.graph.callgraph.CallKind;
+import pascal.taie.analysis.graph.callgraph.Edge;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.PointerAnalysisResultImpl;
+import pascal.taie.analysis.pta.WorldFingerprint;
+import pascal.taie.analysis.pta.core.cs.CSCallGraph;
+import pascal.taie.analysis.pta.core.cs.context.Context;
+import pascal.taie.analysis.pta.core.cs.context.ContextTrie;
+import pascal.taie.analysis.pta.core.cs.element.ArrayIndex;
+import pascal.taie.analysis.pta.core.cs.element.CSCallSite;
+import pascal.taie.analysis.pta.core.cs.element.CSManager;
+import pascal.taie.analysis.pta.core.cs.element.CSMethod;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.CSVar;
+import pascal.taie.analysis.pta.core.cs.element.InstanceField;
+import pascal.taie.analysis.pta.core.cs.element.MapBasedCSManager;
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.core.cs.element.StaticField;
+import pascal.taie.analysis.pta.core.heap.ConstantObj;
+import pascal.taie.analysis.pta.core.heap.HeapModel;
+import pascal.taie.analysis.pta.core.heap.MergedObj;
+import pascal.taie.analysis.pta.core.heap.MockObj;
+import pascal.taie.analysis.pta.core.heap.NewObj;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.analysis.pta.pts.PointsToSet;
+import pascal.taie.ir.exp.ClassLiteral;
+import pascal.taie.ir.exp.ReferenceLiteral;
+import pascal.taie.ir.exp.StringLiteral;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.Type;
+import pascal.taie.language.type.TypeSystem;
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.collection.Maps;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntConsumer;
+
+/**
+ * Saves pointer analysis results to binary snapshot files and restores
+ * them, so that a result can be reused across runs on the same program
+ * without solving it again.
+ * <p>
+ * Snapshots are written and read via memory-mapped files. Program
+ * elements (methods, fields, types and statements) are recorded by
+ * their signatures and indexes, and resolved against the current
+ * {@link World} on loading, so a snapshot must be loaded with the same
+ * program and class path it was saved from; this is checked by
+ * the {@link WorldFingerprint fingerprint} of the world recorded in
+ * the snapshot. Loading only decodes the
+ * tables of elements eagerly; each points-to set is decoded from the
+ * mapped file when it is first accessed.
+ * <p>
+ * Mock objects are restored by their descriptions, allocations, types and
+ * containers, which determine their equality, thus only mock objects
+ * allocated by statements (e.g., taint objects) can be saved.
+ * Results stored in the {@link pascal.taie.util.ResultHolder} of
+ * the given result (e.g., taint flows) are not saved.
+ */
+public final class PointerAnalysisSnapshot {
+
+    private static final Logger logger = LogManager.getLogger(PointerAnalysisSnapshot.class);
+
+    private static final int MAGIC = 0x54505441; // "TPTA"
+
+    private static final int VERSION = 3;
+
+    // kinds of objects
+    private static final byte NEW_OBJ = 0;
+
+    private static final byte MOCK_OBJ = 1;
+
+    private static final byte STRING_CONSTANT = 2;
+
+    private static final byte CLASS_CONSTANT = 3;
+
+    // kinds of context elements
+    private static final byte INVOKE_ELEM = 0;
+
+    private static final byte OBJ_ELEM = 1;
+
+    private static final byte TYPE_ELEM = 2;
+
+    // encodings of points-to sets
+    private static final byte SORTED_IDS = 0;
+
+    private static final byte BIT_SET = 1;
+
+    private PointerAnalysisSnapshot() {
+    }
+
+    /**
+     * Saves given pointer analysis result to the file at given path.
+     *
+     * @throws AnalysisException if the result contains objects
+     *                           that cannot be saved.
+     */
+    public static void save(PointerAnalysisResult result, Path path)
+            throws IOException {
+        if (!result.getKeys().isEmpty()) {
+            logger.warn("Results {} of pointer analysis are not saved to {}",
+                    result.getKeys(), path);
+        }
+        new Writer(result).write(path);
+    }
+
+    /**
+     * Loads the pointer analysis result from the snapshot file at given path.
+     *
+     * @param heapModel the heap model used to restore the objects created
+     *                  by allocation sites. It should be configured with
+     *                  the same options as the one used to compute
+     *                  the saved result.
+     */
+    public static PointerAnalysisResult load(Path path, HeapModel heapModel)
+            throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new AnalysisException(
+                        "Pointer analysis snapshot is too large: " + path);
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        return new Reader(buffer, heapModel).read(path);
+    }
+
+    /**
+     * Decodes the points-to set at given offset of the buffer, and feeds
+     * the object ids to given consumer. This method only uses absolute
+     * reads, and thus can be called concurrently on the same buffer.
+     */
+    static void decodePointsToSet(ByteBuffer buffer, int offset, IntConsumer consumer) {
+        byte kind = buffer.get(offset);
+        if (kind == SORTED_IDS) {
+            int size = buffer.getInt(offset + 1);
+            int base = offset + 5;
+            for (int i = 0; i < size; ++i) {
+                consumer.accept(buffer.getInt(base + i * Integer.BYTES));
+            }
+        } else {
+            int firstWord = buffer.getInt(offset + 1);
+            int nWords = buffer.getInt(offset + 5);
+            int base = offset + 9;
+            for (int i = 0; i < nWords; ++i) {
+                long word = buffer.getLong(base + i * Long.BYTES);
+                while (word != 0) {
+                    int bit = Long.numberOfTrailingZeros(word);
+                    consumer.accept(((firstWord + i) << 6) + bit);
+                    word &= word - 1;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the size in bytes of the points-to set at given offset.
+     */
+    private static int sizeOfPointsToSet(ByteBuffer buffer, int offset) {
+        byte kind = buffer.get(offset);
+        return kind == SORTED_IDS ?
+                5 + buffer.getInt(offset + 1) * Integer.BYTES :
+                9 + buffer.getInt(offset + 5) * Long.BYTES;
+    }
+
+    /**
+     * Assigns consecutive ids to the elements added to it.
+     */
+    private static class Indexer<T> {
+
+        private final Map<T, Integer> ids = Maps.newMap();
+
+        private final List<T> elements = new ArrayList<>();
+
+        /**
+         * @return true if the element is newly added.
+         */
+        private boolean add(T e) {
+            if (ids.containsKey(e)) {
+                return false;
+            }
+            ids.put(e, elements.size());
+            elements.add(e);
+            return true;
+        }
+
+        private int getId(T e) {
+            Integer id = ids.get(e);
+            if (id == null) {
+                throw new AnalysisException(e + " is not indexed");
+            }
+            return id;
+        }
+
+        private List<T> getElements() {
+            return elements;
+        }
+    }
+
+    private static class Writer {
+
+        private final PointerAnalysisResult result;
+
+        private final Indexer<JMethod> methods = new Indexer<>();
+
+        private final Indexer<JField> fields = new Indexer<>();
+
+        private final Indexer<Type> types = new Indexer<>();
+
+        private final Indexer<Obj> objs = new Indexer<>();
+
+        private final Indexer<Context> contexts = new Indexer<>();
+
+        private final Indexer<CSObj> csObjs = new Indexer<>();
+
+        private final Indexer<CSMethod> csMethods = new Indexer<>();
+
+        private MappedOutput out;
+
+        private Writer(PointerAnalysisResult result) {
+            this.result = result;
+        }
+
+        private void write(Path path) throws IOException {
+            index();
+            try (MappedOutput out = new MappedOutput(path)) {
+                this.out = out;
+                out.putInt(MAGIC);
+                out.putInt(VERSION);
+                out.putString(HexFormat.of().formatHex(
+                        WorldFingerprint.compute(World.get().getOptions())));
+                writeTables();
+                writePointers();
+                writeCallGraph();
+            }
+        }
+
+        // ---------- indexing ----------
+        private void index() {
+            CallGraph<CSCallSite, CSMethod> callGraph = result.getCSCallGraph();
+            callGraph.reachableMethods().forEach(this::indexCSMethod);
+            callGraph.edges().forEach(edge -> {
+                indexContext(edge.getCallSite().getContext());
+                indexCSMethod(edge.getCallee());
+            });
+            result.getCSVars().forEach(csVar -> {
+                indexContext(csVar.getContext());
+                methods.add(csVar.getVar().getMethod());
+                indexPointsToSet(csVar);
+            });
+            result.getStaticFields().forEach(sfield -> {
+                fields.add(sfield.getField());
+                indexPointsToSet(sfield);
+            });
+            result.getInstanceFields().forEach(ifield -> {
+                indexCSObj(ifield.getBase());
+                fields.add(ifield.getField());
+                indexPointsToSet(ifield);
+            });
+            result.getArrayIndexes().forEach(array -> {
+                indexCSObj(array.getArray());
+                indexPointsToSet(array);
+            });
+        }
+
+        private void indexPointsToSet(Pointer pointer) {
+            PointsToSet pts = pointer.getPointsToSet();
+            if (pts != null) {
+                pts.forEach(this::indexCSObj);
+            }
+        }
+
+        private void indexCSMethod(CSMethod csMethod) {
+            if (csMethods.add(csMethod)) {
+                indexContext(csMethod.getContext());
+                methods.add(csMethod.getMethod());
+            }
+        }
+
+        private void indexCSObj(CSObj csObj) {
+            if (csObjs.add(csObj)) {
+                indexContext(csObj.getContext());
+                indexObj(csObj.getObject());
+            }
+        }
+
+        private void indexContext(Context context) {
+            if (contexts.add(context)) {
+                for (int i = 0; i < context.getLength(); ++i) {
+                    Object elem = context.getElementAt(i);
+                    if (elem instanceof Invoke invoke) {
+                        methods.add(invoke.getContainer());
+                    } else if (elem instanceof Obj obj) {
+                        indexObj(obj);
+                    } else if (elem instanceof Type type) {
+                        types.add(type);
+                    } else {
+                        throw new AnalysisException(
+                                "Cannot save context element: " + elem);
+                    }
+                }
+            }
+        }
+
+        private void indexObj(Obj obj) {
+            if (objs.add(obj)) {
+                if (obj instanceof NewObj || obj instanceof MergedObj) {
+                    methods.add(getAllocation(obj).getContainer());
+                } else if (obj instanceof MockObj mockObj) {
+                    types.add(mockObj.getType());
+                    mockObj.getContainerMethod().ifPresent(methods::add);
+                    if (mockObj.getAllocation() instanceof Stmt stmt) {
+                        methods.add(getContainer(stmt));
+                    } else {
+                        throw new AnalysisException("Cannot save mock object " +
+                                obj + ", whose allocation is not a statement");
+                    }
+                } else if (obj instanceof ConstantObj constObj) {
+                    ReferenceLiteral value = constObj.getAllocation();
+                    if (value instanceof ClassLiteral classLiteral) {
+                        types.add(classLiteral.getTypeValue());
+                    } else if (!(value instanceof StringLiteral)) {
+                        throw new AnalysisException(
+                                "Cannot save constant object: " + obj);
+                    }
+                } else {
+                    throw new AnalysisException("Cannot save object: " + obj);
+                }
+            }
+        }
+
+        /**
+         * @return the allocation site of given object. For merged object,
+         * returns the allocation site of one of its represented objects,
+         * from which the heap model will restore the merged object.
+         */
+        private static New getAllocation(Obj obj) {
+            if (obj instanceof NewObj newObj) {
+                return newObj.getAllocation();
+            }
+            for (Obj o : ((MergedObj) obj).getAllocation()) {
+                if (o instanceof NewObj newObj) {
+                    return newObj.getAllocation();
+                }
+            }
+            throw new AnalysisException("Cannot save object: " + obj);
+        }
+
+        // ---------- writing ----------
+        private void writeTables() throws IOException {
+            out.putInt(methods.getElements().size());
+            for (JMethod method : methods.getElements()) {
+                out.putString(method.getSignature());
+            }
+            out.putInt(fields.getElements().size());
+            for (JField field : fields.getElements()) {
+                out.putString(field.getSignature());
+            }
+            out.putInt(types.getElements().size());
+            for (Type type : types.getElements()) {
+                out.putString(type.getName());
+            }
+            out.putInt(objs.getElements().size());
+            for (Obj obj : objs.getElements()) {
+                writeObj(obj);
+            }
+            out.putInt(contexts.getElements().size());
+            for (Context context : contexts.getElements()) {
+                out.putInt(context.getLength());
+                for (int i = 0; i < context.getLength(); ++i) {
+                    Object elem = context.getElementAt(i);
+                    if (elem instanceof Invoke invoke) {
+                        out.putByte(INVOKE_ELEM);
+                        writeStmt(invoke);
+                    } else if (elem instanceof Obj obj) {
+                        out.putByte(OBJ_ELEM);
+                        out.putInt(objs.getId(obj));
+                    } else {
+                        out.putByte(TYPE_ELEM);
+                        out.putInt(types.getId((Type) elem));
+                    }
+                }
+            }
+            out.putInt(csObjs.getElements().size());
+            for (CSObj csObj : csObjs.getElements()) {
+                out.putInt(contexts.getId(csObj.getContext()));
+                out.putInt(objs.getId(csObj.getObject()));
+            }
+            out.putInt(csMethods.getElements().size());
+            for (CSMethod csMethod : csMethods.getElements()) {
+                out.putInt(contexts.getId(csMethod.getContext()));
+                out.putInt(methods.getId(csMethod.getMethod()));
+            }
+        }
+
+        private void writeObj(Obj obj) throws IOException {
+            if (obj instanceof NewObj || obj instanceof MergedObj) {
+                out.putByte(NEW_OBJ);
+                writeStmt(getAllocation(obj));
+            } else if (obj instanceof MockObj mockObj) {
+                out.putByte(MOCK_OBJ);
+                out.putString(mockObj.getDescription());
+                writeStmt((Stmt) mockObj.getAllocation());
+                out.putInt(types.getId(mockObj.getType()));
+                out.putInt(mockObj.getContainerMethod()
+                        .map(methods::getId)
+                        .orElse(-1));
+            } else {
+                ReferenceLiteral value = ((ConstantObj) obj).getAllocation();
+                if (value instanceof StringLiteral stringLiteral) {
+                    out.putByte(STRING_CONSTANT);
+                    out.putString(stringLiteral.getString());
+                } else {
+                    out.putByte(CLASS_CONSTANT);
+                    out.putInt(types.getId(((ClassLiteral) value).getTypeValue()));
+                }
+            }
+        }
+
+        private void writeStmt(Stmt stmt) throws IOException {
+            out.putInt(methods.getId(getContainer(stmt)));
+            out.putInt(stmt.getIndex());
+        }
+
+        private void writePointers() throws IOException {
+            out.putInt(result.getCSVars().size());
+            for (CSVar csVar : result.getCSVars()) {
+                out.putInt(contexts.getId(csVar.getContext()));
+                out.putInt(methods.getId(csVar.getVar().getMethod()));
+                out.putInt(csVar.getVar().getIndex());
+                writePointsToSet(csVar.getPointsToSet());
+            }
+            out.putInt(result.getStaticFields().size());
+            for (StaticField sfield : result.getStaticFields()) {
+                out.putInt(fields.getId(sfield.getField()));
+                writePointsToSet(sfield.getPointsToSet());
+            }
+            out.putInt(result.getInstanceFields().size());
+            for (InstanceField ifield : result.getInstanceFields()) {
+                out.putInt(csObjs.getId(ifield.getBase()));
+                out.putInt(fields.getId(ifield.getField()));
+                writePointsToSet(ifield.getPointsToSet());
+            }
+            out.putInt(result.getArrayIndexes().size());
+            for (ArrayIndex array : result.getArrayIndexes()) {
+                out.putInt(csObjs.getId(array.getArray()));
+                writePointsToSet(array.getPointsToSet());
+            }
+        }
+
+        /**
+         * Writes the points-to set as sorted object ids or as a bit set
+         * over the range of the ids, whichever is smaller.
+         */
+        private void writePointsToSet(PointsToSet pts) throws IOException {
+            int[] ids = pts == null ? new int[0] :
+                    pts.objects().mapToInt(csObjs::getId).toArray();
+            Arrays.sort(ids);
+            int firstWord = ids.length == 0 ? 0 : ids[0] >>> 6;
+            int nWords = ids.length == 0 ? 0 :
+                    (ids[ids.length - 1] >>> 6) - firstWord + 1;
+            if ((long) nWords * Long.BYTES + 4 < (long) ids.length * Integer.BYTES) {
+                out.putByte(BIT_SET);
+                out.putInt(firstWord);
+                out.putInt(nWords);
+                long word = 0;
+                int wordIndex = firstWord;
+                for (int id : ids) {
+                    while ((id >>> 6) != wordIndex) {
+                        out.putLong(word);
+                        word = 0;
+                        ++wordIndex;
+                    }
+                    word |= 1L << (id & 63);
+                }
+                out.putLong(word);
+            } else {
+                out.putByte(SORTED_IDS);
+                out.putInt(ids.length);
+                for (int id : ids) {
+                    out.putInt(id);
+                }
+            }
+        }
+
+        private void writeCallGraph() throws IOException {
+            CallGraph<CSCallSite, CSMethod> callGraph = result.getCSCallGraph();
+            List<CSMethod> entries = callGraph.entryMethods().toList();
+            out.putInt(entries.size());
+            for (CSMethod entry : entries) {
+                out.putInt(csMethods.getId(entry));
+            }
+            List<CSMethod> reachable = callGraph.reachableMethods().toList();
+            out.putInt(reachable.size());
+            for (CSMethod csMethod : reachable) {
+                out.putInt(csMethods.getId(csMethod));
+            }
+            List<Edge<CSCallSite, CSMethod>> edges = callGraph.edges().toList();
+            out.putInt(edges.size());
+            for (Edge<CSCallSite, CSMethod> edge : edges) {
+                CSCallSite csCallSite = edge.getCallSite();
+                out.putByte(edge.getKind().ordinal());
+                out.putInt(contexts.getId(csCallSite.getContext()));
+                writeStmt(csCallSite.getCallSite());
+                out.putInt(csMethods.getId(edge.getCallee()));
+            }
+        }
+    }
+
+    private static JMethod getContainer(Stmt stmt) {
+        if (stmt instanceof Invoke invoke) {
+            return invoke.getContainer();
+        } else if (stmt instanceof New newStmt) {
+            return newStmt.getContainer();
+        }
+        throw new AnalysisException("Cannot save statement: " + stmt);
+    }
+
+    private static class Reader {
+
+        private final MappedByteBuffer buffer;
+
+        private final HeapModel heapModel;
+
+        private final ClassHierarchy hierarchy = World.get().getClassHierarchy();
+
+        private final TypeSystem typeSystem = World.get().getTypeSystem();
+
+        private final CSManager csManager = new MapBasedCSManager();
+
+        private JMethod[] methods;
+
+        private JField[] fields;
+
+        private Type[] types;
+
+        private Obj[] objs;
+
+        private Context[] contexts;
+
+        private CSObj[] csObjs;
+
+        private CSMethod[] csMethods;
+
+        private Reader(MappedByteBuffer buffer, HeapModel heapModel) {
+            this.buffer = buffer;
+            this.heapModel = heapModel;
+        }
+
+        private PointerAnalysisResult read(Path path) throws IOException {
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new AnalysisException(
+                        path + " is not a compatible pointer analysis snapshot");
+            }
+            String fingerprint = HexFormat.of().formatHex(
+                    WorldFingerprint.compute(World.get().getOptions()));
+            if (!getString().equals(fingerprint)) {
+                throw new AnalysisException(
+                        path + " was saved for a different world");
+            }
+            readTables();
+            readPointers();
+            CSCallGraph callGraph = readCallGraph();
+            return new PointerAnalysisResultImpl(csManager, callGraph);
+        }
+
+        private void readTables() {
+            methods = new JMethod[buffer.getInt()];
+            for (int i = 0; i < methods.length; ++i) {
+                String signature = getString();
+                methods[i] = hierarchy.getMethod(signature);
+                if (methods[i] == null) {
+                    throw new AnalysisException(
+                            "Cannot find method " + signature);
+                }
+            }
+            fields = new JField[buffer.getInt()];
+            for (int i = 0; i < fields.length; ++i) {
+                String signature = getString();
+                fields[i] = hierarchy.getField(signature);
+                if (fields[i] == null) {
+                    throw new AnalysisException(
+                            "Cannot find field " + signature);
+                }
+            }
+            types = new Type[buffer.getInt()];
+            for (int i = 0; i < types.length; ++i) {
+                types[i] = typeSystem.getType(getString());
+            }
+            objs = new Obj[buffer.getInt()];
+            for (int i = 0; i < objs.length; ++i) {
+                objs[i] = readObj();
+            }
+            ContextTrie trie = new ContextTrie();
+            contexts = new Context[buffer.getInt()];
+            for (int i = 0; i < contexts.length; ++i) {
+                Object[] elems = new Object[buffer.getInt()];
+                for (int j = 0; j < elems.length; ++j) {
+                    byte kind = buffer.get();
+                    elems[j] = switch (kind) {
+                        case INVOKE_ELEM -> readStmt();
+                        case OBJ_ELEM -> objs[buffer.getInt()];
+                        case TYPE_ELEM -> types[buffer.getInt()];
+                        default -> throw new AnalysisException(
+                                "Unknown context element kind: " + kind);
+                    };
+                }
+                contexts[i] = trie.make(elems);
+            }
+            csObjs = new CSObj[buffer.getInt()];
+            for (int i = 0; i < csObjs.length; ++i) {
+                Context context = contexts[buffer.getInt()];
+                csObjs[i] = csManager.getCSObj(context, objs[buffer.getInt()]);
+            }
+            csMethods = new CSMethod[buffer.getInt()];
+            for (int i = 0; i < csMethods.length; ++i) {
+                Context context = contexts[buffer.getInt()];
+                csMethods[i] = csManager.getCSMethod(context, methods[buffer.getInt()]);
+            }
+        }
+
+        private Obj readObj() {
+            byte kind = buffer.get();
+            switch (kind) {
+                case NEW_OBJ -> {
+                    return heapModel.getObj((New) readStmt());
+                }
+                case MOCK_OBJ -> {
+                    String desc = getString();
+                    Stmt alloc = readStmt();
+                    Type type = types[buffer.getInt()];
+                    int container = buffer.getInt();
+                    return container == -1 ?
+                            new MockObj(desc, alloc, type) :
+                            new MockObj(desc, alloc, type, methods[container]);
+                }
+                case STRING_CONSTANT -> {
+                    return heapModel.getConstantObj(StringLiteral.get(getString()));
+                }
+                case CLASS_CONSTANT -> {
+                    return heapModel.getConstantObj(
+                            ClassLiteral.get(types[buffer.getInt()]));
+                }
+                default -> throw new AnalysisException(
+                        "Unknown object kind: " + kind);
+            }
+        }
+
+        private Stmt readStmt() {
+            JMethod method = methods[buffer.getInt()];
+            return method.getIR().getStmt(buffer.getInt());
+        }
+
+        private void readPointers() {
+            int nVars = buffer.getInt();
+            for (int i = 0; i < nVars; ++i) {
+                Context context = contexts[buffer.getInt()];
+                JMethod method = methods[buffer.getInt()];
+                CSVar csVar = csManager.getCSVar(context,
+                        method.getIR().getVar(buffer.getInt()));
+                readPointsToSet(csVar);
+            }
+            int nStaticFields = buffer.getInt();
+            for (int i = 0; i < nStaticFields; ++i) {
+                readPointsToSet(csManager.getStaticField(fields[buffer.getInt()]));
+            }
+            int nInstanceFields = buffer.getInt();
+            for (int i = 0; i < nInstanceFields; ++i) {
+                CSObj base = csObjs[buffer.getInt()];
+                readPointsToSet(csManager.getInstanceField(
+                        base, fields[buffer.getInt()]));
+            }
+            int nArrays = buffer.getInt();
+            for (int i = 0; i < nArrays; ++i) {
+                readPointsToSet(csManager.getArrayIndex(csObjs[buffer.getInt()]));
+            }
+        }
+
+        /**
+         * Sets a lazily-decoded points-to set to given pointer,
+         * and skips the encoded points-to set.
+         */
+        private void readPointsToSet(Pointer pointer) {
+            int offset = buffer.position();
+            pointer.setPointsToSet(new LazyPointsToSet(buffer, offset, csObjs));
+            buffer.position(offset + sizeOfPointsToSet(buffer, offset));
+        }
+
+        private CSCallGraph readCallGraph() {
+            CSCallGraph callGraph = new CSCallGraph(csManager);
+            int nEntries = buffer.getInt();
+            for (int i = 0; i < nEntries; ++i) {
+                callGraph.addEntryMethod(csMethods[buffer.getInt()]);
+            }
+            int nReachable = buffer.getInt();
+            for (int i = 0; i < nReachable; ++i) {
+                callGraph.addReachableMethod(csMethods[buffer.getInt()]);
+            }
+            CallKind[] kinds = CallKind.values();
+            int nEdges = buffer.getInt();
+            for (int i = 0; i < nEdges; ++i) {
+                CallKind kind = kinds[buffer.get()];
+                Context context = contexts[buffer.getInt()];
+                Invoke callSite = (Invoke) readStmt();
+                CSCallSite csCallSite = csManager.getCSCallSite(context, callSite);
+                CSMethod callee = csMethods[buffer.getInt()];
+                callGraph.addEdge(new Edge<>(kind, csCallSite, callee));
+            }
+            return callGraph;
+        }
+
+        private String getString() {
+            byte[] bytes = new byte[buffer.getInt()];
+            buffer.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
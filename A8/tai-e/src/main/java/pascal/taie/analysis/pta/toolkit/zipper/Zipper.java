@@ -0,0 +1,245 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.toolkit.zipper;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.analysis.pta.toolkit.PointerAnalysisResultEx;
+import pascal.taie.analysis.pta.toolkit.PointerAnalysisResultExImpl;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.CastExp;
+import pascal.taie.ir.exp.InstanceFieldAccess;
+import pascal.taie.ir.exp.InvokeExp;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Cast;
+import pascal.taie.ir.stmt.Copy;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.LoadArray;
+import pascal.taie.ir.stmt.LoadField;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.ir.stmt.StoreArray;
+import pascal.taie.ir.stmt.StoreField;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.ReferenceType;
+import pascal.taie.language.type.Type;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Sets;
+
+import javax.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Set;
+
+/**
+ * Zipper-style identification of precision-critical methods.
+ * <p>
+ * For each type T of the objects in a context-insensitive pre-analysis,
+ * Zipper builds a precision flow graph over the methods invoked on
+ * the objects of T, which models the flows of values in the methods:
+ * <ul>
+ *     <li>direct flows via assignments, casts, parameters and returns;</li>
+ *     <li>wrapped flows, i.e., a value is stored into a field (or array)
+ *     of an object, and the object flows out;</li>
+ *     <li>unwrapped flows, i.e., a value is loaded from a field (or array)
+ *     of an object which was stored into the field before.</li>
+ * </ul>
+ * The values passed into the objects of T (via the parameters of the
+ * methods, i.e., IN methods) may be merged and flow out (via the returns
+ * of the methods, i.e., OUT methods), which is the major source of
+ * imprecision of context-insensitive analysis. The methods on such flows
+ * are precision-critical, and only these methods deserve contexts.
+ */
+public class Zipper {
+
+    private static final Logger logger = LogManager.getLogger(Zipper.class);
+
+    private final PointerAnalysisResult pta;
+
+    private final PointerAnalysisResultEx ptaEx;
+
+    public Zipper(PointerAnalysisResult pta) {
+        this.pta = pta;
+        this.ptaEx = new PointerAnalysisResultExImpl(pta);
+    }
+
+    /**
+     * @return the precision-critical methods of the program.
+     */
+    public Set<JMethod> selectPrecisionCriticalMethods() {
+        MultiMap<Type, Obj> typeObjs = Maps.newMultiMap();
+        pta.getObjects().forEach(obj -> typeObjs.put(obj.getType(), obj));
+        Set<JMethod> pcms = Sets.newSet();
+        typeObjs.forEachSet((type, objs) -> {
+            Set<JMethod> methods = Sets.newSet();
+            objs.forEach(obj -> methods.addAll(ptaEx.getMethodsInvokedOn(obj)));
+            if (!methods.isEmpty()) {
+                pcms.addAll(new PrecisionFlowGraph(methods).getCriticalMethods());
+            }
+        });
+        logger.info("Zipper: #types: {}, #precision-critical methods: {}" +
+                        " (#reachable methods: {})", typeObjs.keySet().size(),
+                pcms.size(), pta.getCallGraph().getNumberOfMethods());
+        return pcms;
+    }
+
+    /**
+     * Node representing the field of an object. Field is null for
+     * the elements of an array object.
+     */
+    private record FieldNode(Obj base, @Nullable JField field) {
+    }
+
+    /**
+     * Precision flow graph for the methods invoked on the objects of
+     * a type. Nodes are variables and {@link FieldNode}s.
+     */
+    private class PrecisionFlowGraph {
+
+        private final Set<JMethod> methods;
+
+        private final MultiMap<Object, Object> succs = Maps.newMultiMap();
+
+        private final MultiMap<Object, Object> preds = Maps.newMultiMap();
+
+        private final Set<Var> inNodes = Sets.newSet();
+
+        private final Set<Var> outNodes = Sets.newSet();
+
+        private PrecisionFlowGraph(Set<JMethod> methods) {
+            this.methods = methods;
+            methods.forEach(this::build);
+        }
+
+        private void build(JMethod method) {
+            IR ir = method.getIR();
+            ir.getParams().forEach(param -> {
+                if (isReference(param)) {
+                    inNodes.add(param);
+                }
+            });
+            if (method.getReturnType() instanceof ReferenceType) {
+                outNodes.addAll(ir.getReturnVars());
+            }
+            for (Stmt stmt : ir) {
+                if (stmt instanceof Copy copy) {
+                    addEdge(copy.getRValue(), copy.getLValue());
+                } else if (stmt instanceof Cast cast) {
+                    CastExp exp = cast.getRValue();
+                    addEdge(exp.getValue(), cast.getLValue());
+                } else if (stmt instanceof LoadField load && !load.isStatic()) {
+                    Var base = ((InstanceFieldAccess)
+                            load.getFieldAccess()).getBase();
+                    JField field = load.getFieldRef().resolve();
+                    // unwrapped flow
+                    pta.getPointsToSet(base).forEach(obj ->
+                            addEdge(new FieldNode(obj, field), load.getLValue()));
+                } else if (stmt instanceof StoreField store && !store.isStatic()) {
+                    Var base = ((InstanceFieldAccess)
+                            store.getFieldAccess()).getBase();
+                    JField field = store.getFieldRef().resolve();
+                    pta.getPointsToSet(base).forEach(obj ->
+                            addEdge(store.getRValue(), new FieldNode(obj, field)));
+                    // wrapped flow
+                    addEdge(store.getRValue(), base);
+                } else if (stmt instanceof LoadArray load) {
+                    pta.getPointsToSet(load.getArrayAccess().getBase()).forEach(obj ->
+                            addEdge(new FieldNode(obj, null), load.getLValue()));
+                } else if (stmt instanceof StoreArray store) {
+                    Var base = store.getArrayAccess().getBase();
+                    pta.getPointsToSet(base).forEach(obj ->
+                            addEdge(store.getRValue(), new FieldNode(obj, null)));
+                    addEdge(store.getRValue(), base);
+                } else if (stmt instanceof Invoke invoke) {
+                    addCallEdges(invoke);
+                }
+            }
+        }
+
+        private void addCallEdges(Invoke invoke) {
+            InvokeExp invokeExp = invoke.getInvokeExp();
+            Var result = invoke.getResult();
+            for (JMethod callee : pta.getCallGraph().getCalleesOf(invoke)) {
+                // only the flows among the methods of current type are
+                // considered, and the flows via other methods are ignored
+                if (!methods.contains(callee)) {
+                    continue;
+                }
+                IR calleeIR = callee.getIR();
+                for (int i = 0; i < invokeExp.getArgCount(); ++i) {
+                    addEdge(invokeExp.getArg(i), calleeIR.getParam(i));
+                }
+                if (result != null) {
+                    calleeIR.getReturnVars().forEach(ret -> addEdge(ret, result));
+                }
+            }
+        }
+
+        private void addEdge(Object source, Object target) {
+            if (!(source instanceof Var var) || isReference(var)) {
+                succs.put(source, target);
+                preds.put(target, source);
+            }
+        }
+
+        private boolean isReference(Var var) {
+            return var.getType() instanceof ReferenceType;
+        }
+
+        /**
+         * @return the methods containing the variables that are on
+         * the flows from IN methods to OUT methods.
+         */
+        private Set<JMethod> getCriticalMethods() {
+            if (inNodes.isEmpty() || outNodes.isEmpty()) {
+                return Set.of();
+            }
+            Set<Object> forward = reach(inNodes, succs);
+            Set<Object> backward = reach(outNodes, preds);
+            Set<JMethod> result = Sets.newSet();
+            forward.forEach(node -> {
+                if (node instanceof Var var && backward.contains(var)) {
+                    result.add(var.getMethod());
+                }
+            });
+            return result;
+        }
+
+        private Set<Object> reach(Set<Var> roots, MultiMap<Object, Object> edges) {
+            Set<Object> visited = Sets.newSet();
+            visited.addAll(roots);
+            Deque<Object> stack = new ArrayDeque<>(roots);
+            while (!stack.isEmpty()) {
+                for (Object next : edges.get(stack.pop())) {
+                    if (visited.add(next)) {
+                        stack.push(next);
+                    }
+                }
+            }
+            return visited;
+        }
+    }
+}
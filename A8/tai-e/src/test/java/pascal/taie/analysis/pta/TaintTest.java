@@ -23,7 +23,26 @@
 package pascal.taie.analysis.pta;
 
 import org.junit.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
 import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.pta.core.heap.MockObj;
+import pascal.taie.analysis.pta.cs.CSPTA;
+import pascal.taie.analysis.pta.plugin.taint.TaintAnalysiss;
+import pascal.taie.analysis.pta.plugin.taint.TaintFlow;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 public class TaintTest {
 
@@ -70,4 +89,270 @@ public class TaintTest {
         Tests.testCSPTA(DIR, "TaintInList",
                 "cs:2-obj;taint-config:src/test/resources/pta/taint/taint-config.yml");
     }
+
+    @Test
+    public void testSimpleTaintParallel() {
+        Tests.testCSPTA(DIR, "SimpleTaint",
+                "threads:4;taint-config:src/test/resources/pta/taint/taint-config.yml");
+    }
+
+    @Test
+    public void testStringAppendParallel() {
+        Tests.testCSPTA(DIR, "StringAppend",
+                "threads:4;taint-config:src/test/resources/pta/taint/taint-config.yml");
+    }
+
+    @Test
+    public void testInterTaintTransferParallel() {
+        Tests.testCSPTA(DIR, "InterTaintTransfer",
+                "cs:2-call;threads:4;taint-config:src/test/resources/pta/taint/taint-config.yml");
+    }
+
+    @Test
+    public void testTaintInListParallel() {
+        Tests.testCSPTA(DIR, "TaintInList",
+                "cs:2-obj;threads:4;taint-config:src/test/resources/pta/taint/taint-config.yml");
+    }
+
+    @Test
+    public void testSimpleTaintSparse() {
+        Tests.testCSPTA(DIR, "SimpleTaint",
+                "sparse-taint:true;taint-config:src/test/resources/pta/taint/taint-config.yml");
+    }
+
+    @Test
+    public void testArgToResultSparse() {
+        Tests.testCSPTA(DIR, "ArgToResult",
+                "sparse-taint:true;taint-config:src/test/resources/pta/taint/taint-config.yml");
+    }
+
+    @Test
+    public void testBaseToResultSparse() {
+        Tests.testCSPTA(DIR, "BaseToResult",
+                "sparse-taint:true;taint-config:src/test/resources/pta/taint/taint-config.yml");
+    }
+
+    @Test
+    public void testStringAppendSparse() {
+        Tests.testCSPTA(DIR, "StringAppend",
+                "sparse-taint:true;taint-config:src/test/resources/pta/taint/taint-config.yml");
+    }
+
+    @Test
+    public void testOneCallTaintSparse() {
+        Tests.testCSPTA(DIR, "OneCallTaint",
+                "cs:1-call;sparse-taint:true;taint-config:src/test/resources/pta/taint/taint-config.yml");
+    }
+
+    @Test
+    public void testInterTaintTransferSparse() {
+        Tests.testCSPTA(DIR, "InterTaintTransfer",
+                "cs:2-call;sparse-taint:true;taint-config:src/test/resources/pta/taint/taint-config.yml");
+    }
+
+    @Test
+    public void testTaintInListSparse() {
+        Tests.testCSPTA(DIR, "TaintInList",
+                "cs:2-obj;sparse-taint:true;taint-config:src/test/resources/pta/taint/taint-config.yml");
+    }
+
+    /**
+     * In sparse mode, taint objects are not propagated by pointer analysis,
+     * and calls on tainted receivers only apply taint transfers, thus
+     * the call graph is the same as the one without taint analysis.
+     */
+    @Test
+    public void testSparseTaintCallGraph() {
+        assertEquals(getCallEdges("BaseToResult", "cs:ci"),
+                getCallEdges("BaseToResult", "sparse-taint:true;" +
+                        "taint-config:src/test/resources/pta/taint/taint-config.yml"));
+    }
+
+    /**
+     * The taint flows found in parallel are merged and sorted,
+     * thus their order is the same as sequential analysis.
+     */
+    @Test
+    public void testParallelTaintFlowOrder() {
+        String opts = "taint-config:src/test/resources/pta/taint/taint-config.yml";
+        assertEquals(getTaintFlows("SimpleTaint", opts),
+                getTaintFlows("SimpleTaint", "threads:4;" + opts));
+        assertEquals(getTaintFlows("TaintInList", "cs:2-obj;" + opts),
+                getTaintFlows("TaintInList", "cs:2-obj;threads:4;" + opts));
+    }
+
+    /**
+     * Sink pruning ignores the sources called in the methods which neither
+     * reach sinks nor return results to the callers which reach sinks,
+     * thus creates fewer taint objects and finds the same taint flows.
+     */
+    @Test
+    public void testSinkPruningUnrelatedSource() {
+        String opts = "taint-config:src/test/resources/pta/taint/taint-config.yml";
+        PointerAnalysisResult result = runCSPTA("SinkPruning", opts);
+        List<String> taintFlows = getTaintFlows(result);
+        assertEquals(1, taintFlows.size());
+        assertEquals(2, countTaints(result));
+        PointerAnalysisResult pruned = runCSPTA("SinkPruning",
+                "sink-pruning:true;" + opts);
+        assertEquals(taintFlows, getTaintFlows(pruned));
+        assertEquals(1, countTaints(pruned));
+    }
+
+    /**
+     * The analysis stops once "max-taint-flows" taint flows have been
+     * discovered, thus finds fewer taint flows than a complete analysis.
+     */
+    @Test
+    public void testMaxTaintFlows() {
+        String opts = "taint-config:src/test/resources/pta/taint/taint-config.yml";
+        List<String> taintFlows = getTaintFlows("SimpleTaint", opts);
+        List<String> stopped = getTaintFlows("SimpleTaint",
+                "max-taint-flows:1;" + opts);
+        assertFalse(stopped.isEmpty());
+        assertTrue(stopped.toString(), stopped.size() < taintFlows.size());
+        assertTrue(taintFlows.containsAll(stopped));
+    }
+
+    /**
+     * Summary mode reuses the taint objects transferred from each taint
+     * object, and finds the same taint flows as the default mode.
+     */
+    @Test
+    public void testTaintSummaryFlows() {
+        String opts = "taint-config:src/test/resources/pta/taint/taint-config.yml";
+        assertEquals(getTaintFlows("StringAppend", opts),
+                getTaintFlows("StringAppend", "taint-summary:true;" + opts));
+        assertEquals(getTaintFlows("InterTaintTransfer", "cs:2-call;" + opts),
+                getTaintFlows("InterTaintTransfer",
+                        "cs:2-call;taint-summary:true;" + opts));
+    }
+
+    /**
+     * Sink pruning keeps the sources called in the methods whose results
+     * are returned to the callers which reach sinks.
+     */
+    @Test
+    public void testSinkPruningSourceWrapper() {
+        String opts = "taint-config:src/test/resources/pta/taint/taint-config.yml";
+        List<String> taintFlows = getTaintFlows("SourceWrapper", opts);
+        assertEquals(1, taintFlows.size());
+        assertEquals(taintFlows,
+                getTaintFlows("SourceWrapper", "sink-pruning:true;" + opts));
+    }
+
+    /**
+     * Each taint flow is followed by its witness path, which starts from
+     * the result of the source call, unless the search of the path
+     * visits more pointers than "taint-path-max-visits".
+     */
+    @Test
+    public void testTaintPaths() throws IOException {
+        String opts = "taint-config:src/test/resources/pta/taint/taint-config.yml";
+        Path paths = Files.createTempFile("StringAppend", ".txt");
+        try {
+            List<String> taintFlows = getTaintFlows("StringAppend",
+                    "taint-paths:" + paths + ";" + opts);
+            List<String> lines = Files.readAllLines(paths);
+            assertEquals(taintFlows, lines.stream()
+                    .filter(line -> !line.startsWith("  "))
+                    .toList());
+            for (int i = 0; i < lines.size(); ++i) {
+                if (!lines.get(i).startsWith("  ")) {
+                    assertTrue(i + 2 < lines.size());
+                    assertTrue(lines.get(i + 1).startsWith("  "));
+                    assertTrue(lines.get(i + 1).endsWith("/temp$0"));
+                }
+            }
+
+            getTaintFlows("StringAppend", "taint-paths:" + paths +
+                    ";taint-path-max-visits:1;" + opts);
+            lines = Files.readAllLines(paths);
+            assertEquals(taintFlows, lines);
+            assertFalse(lines.stream().anyMatch(line -> line.startsWith("  ")));
+        } finally {
+            Files.deleteIfExists(paths);
+        }
+    }
+
+    /**
+     * The sinks of each rule pack report only the taint objects of
+     * the same rule pack.
+     */
+    @Test
+    public void testRulePacks() {
+        PointerAnalysisResult result = runCSPTA("RulePacks",
+                "taint-config:src/test/resources/pta/taint/pack-a.yml," +
+                        "src/test/resources/pta/taint/pack-b.yml");
+        Map<String, Set<TaintFlow>> packFlows =
+                result.getResult(TaintAnalysiss.RULE_PACK_FLOWS);
+        assertEquals(List.of("pack-a", "pack-b"), List.copyOf(packFlows.keySet()));
+        Set<TaintFlow> flowsA = packFlows.get("pack-a");
+        assertEquals(1, flowsA.size());
+        TaintFlow flowA = flowsA.iterator().next();
+        assertEquals("source", flowA.sourceCall().getMethodRef().getName());
+        assertEquals(2, flowA.sinkCall().getInvokeExp().getArgCount());
+        Set<TaintFlow> flowsB = packFlows.get("pack-b");
+        assertEquals(1, flowsB.size());
+        TaintFlow flowB = flowsB.iterator().next();
+        assertEquals("sourceAndSink", flowB.sourceCall().getMethodRef().getName());
+        assertEquals(1, flowB.sinkCall().getInvokeExp().getArgCount());
+        Set<TaintFlow> taintFlows = result.getResult(TaintAnalysiss.class.getName());
+        assertEquals(Set.of(flowA, flowB), taintFlows);
+        assertEquals(Set.of("TaintObj[pack-a]", "TaintObj[pack-b]"),
+                getTaintDescriptions(result));
+    }
+
+    /**
+     * A single rule pack keeps the plain description of taint objects,
+     * and does not store the taint flows of rule packs.
+     */
+    @Test
+    public void testSingleRulePack() {
+        PointerAnalysisResult result = runCSPTA("RulePacks",
+                "taint-config:src/test/resources/pta/taint/taint-config.yml");
+        assertEquals(Set.of("TaintObj"), getTaintDescriptions(result));
+        assertNull(result.getResult(TaintAnalysiss.RULE_PACK_FLOWS));
+    }
+
+    private static Set<String> getTaintDescriptions(PointerAnalysisResult result) {
+        return result.getObjects()
+                .stream()
+                .filter(obj -> obj instanceof MockObj)
+                .map(obj -> ((MockObj) obj).getDescription())
+                .filter(desc -> desc.startsWith("TaintObj"))
+                .collect(Collectors.toSet());
+    }
+
+    private static long countTaints(PointerAnalysisResult result) {
+        return result.getObjects()
+                .stream()
+                .filter(obj -> obj instanceof MockObj mockObj &&
+                        mockObj.getDescription().equals("TaintObj"))
+                .count();
+    }
+
+    private static Set<String> getCallEdges(String main, String opts) {
+        return runCSPTA(main, opts).getCallGraph().edges()
+                .map(Object::toString)
+                .collect(Collectors.toSet());
+    }
+
+    private static List<String> getTaintFlows(String main, String opts) {
+        return getTaintFlows(runCSPTA(main, opts));
+    }
+
+    private static List<String> getTaintFlows(PointerAnalysisResult result) {
+        Set<TaintFlow> taintFlows = result.getResult(TaintAnalysiss.class.getName());
+        return taintFlows.stream()
+                .map(TaintFlow::toString)
+                .toList();
+    }
+
+    private static PointerAnalysisResult runCSPTA(String main, String opts) {
+        Main.main(new String[]{"-pp", "-cp", "src/test/resources/pta/" + DIR,
+                "-m", main, "-a", CSPTA.ID +
+                "=implicit-entries:false;only-app:true;" + opts});
+        return World.get().getResult(CSPTA.ID);
+    }
 }
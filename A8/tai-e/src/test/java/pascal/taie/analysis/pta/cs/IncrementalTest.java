@@ -0,0 +1,125 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.cs;
+
+import org.junit.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.core.cs.selector.CISelector;
+import pascal.taie.analysis.pta.core.heap.AllocationSiteBasedModel;
+import pascal.taie.analysis.pta.core.heap.HeapModel;
+import pascal.taie.config.AnalysisOptions;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Sets;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+
+public class IncrementalTest {
+
+    /**
+     * A static call is added to a(), whose callee b() is also called by c().
+     * When c() is removed, b() is removed together with all its call edges,
+     * and it must be re-derived from the added call.
+     */
+    @Test
+    public void testAddedStaticCallSurvivesRemovedCaller() {
+        Main.buildWorld("-pp", "-cp", "src/test/resources/pta/incremental",
+                "-m", "Incremental");
+        JClass c = World.get().getClassHierarchy().getClass("Incremental");
+        JMethod main = c.getDeclaredMethod("main");
+        JMethod a = c.getDeclaredMethod("a");
+        Invoke callB = getInvoke(a);
+        Invoke callC = getInvoke(c.getDeclaredMethod("unused"));
+
+        HeapModel heapModel = new AllocationSiteBasedModel(makeOptions(true));
+        Solver solver = new Solver(makeOptions(true), heapModel, new CISelector());
+        solver.solve();
+        // main() calls c(), and a() does not call b()
+        Invoke addedCallC = new Invoke(main, callC.getInvokeExp());
+        solver.update(Map.of(main, List.of(addedCallC)), Map.of(a, List.of(callB)));
+        // a() calls b() again, via a new statement
+        Invoke addedCallB = new Invoke(a, callB.getInvokeExp(), callB.getLValue());
+        solver.update(Map.of(a, List.of(addedCallB)), Map.of());
+        // main() does not call c() anymore
+        PointerAnalysisResult updated = solver.update(
+                Map.of(), Map.of(main, List.of(addedCallC)));
+
+        // the updated program is the same as the original one
+        Solver scratch = new Solver(makeOptions(false), heapModel, new CISelector());
+        scratch.solve();
+        PointerAnalysisResult expected = scratch.getResult();
+        assertEquals(getReachableMethods(expected), getReachableMethods(updated));
+        assertEquals(getCallEdges(expected), getCallEdges(updated));
+        Set<Var> vars = Sets.newSet();
+        vars.addAll(expected.getVars());
+        vars.addAll(updated.getVars());
+        for (Var var : vars) {
+            assertEquals(var.toString(), expected.getPointsToSet(var),
+                    updated.getPointsToSet(var));
+        }
+    }
+
+    private static AnalysisOptions makeOptions(boolean incremental) {
+        return new AnalysisOptions(Map.of(
+                "cs", "ci",
+                "merge-string-constants", false,
+                "merge-string-objects", false,
+                "merge-string-builders", false,
+                "merge-exception-objects", true,
+                "incremental", incremental));
+    }
+
+    private static Invoke getInvoke(JMethod method) {
+        for (Stmt stmt : method.getIR()) {
+            if (stmt instanceof Invoke invoke) {
+                return invoke;
+            }
+        }
+        throw new AssertionError("No invoke in " + method);
+    }
+
+    private static Set<JMethod> getReachableMethods(PointerAnalysisResult result) {
+        return result.getCallGraph().reachableMethods().collect(Collectors.toSet());
+    }
+
+    /**
+     * @return the call edges as the caller-callee pairs, as the added
+     * statements differ from the statements of IR.
+     */
+    private static Set<String> getCallEdges(PointerAnalysisResult result) {
+        return result.getCallGraph().edges()
+                .map(edge -> edge.getCallSite().getContainer() +
+                        " -> " + edge.getCallee())
+                .collect(Collectors.toSet());
+    }
+}
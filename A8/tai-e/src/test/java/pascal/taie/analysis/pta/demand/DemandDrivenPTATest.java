@@ -0,0 +1,98 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.demand;
+
+import org.junit.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.cs.CSPTA;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.language.type.ReferenceType;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DemandDrivenPTATest {
+
+    private static final String DIR = "src/test/resources/pta/demand";
+
+    private static final String MAIN = "Demand";
+
+    @Test
+    public void testWithinBudget() {
+        DemandDrivenResult result = runDemandDriven("demand-budget:100000");
+        Map<String, Set<String>> demand = getPointsToSets(result);
+        assertEquals(0, result.getDemandDrivenPTA().getNumberOfFallbacks());
+        assertEquals(getPointsToSets(runCSPTA("cs:ci")), demand);
+        // the queries are not trivially empty
+        assertFalse(demand.get("b4").isEmpty());
+        assertFalse(demand.get("o").isEmpty());
+        assertFalse(demand.get("s").isEmpty());
+    }
+
+    /**
+     * The queries exceeding the budget are answered by the fallback,
+     * which is context-insensitive regardless of option "cs".
+     */
+    @Test
+    public void testOverBudget() {
+        DemandDrivenResult result = runDemandDriven("demand-budget:1;cs:2-obj");
+        Map<String, Set<String>> demand = getPointsToSets(result);
+        assertTrue(result.getDemandDrivenPTA().getNumberOfFallbacks() > 0);
+        assertEquals(getPointsToSets(runCSPTA("cs:ci")), demand);
+    }
+
+    private static DemandDrivenResult runDemandDriven(String opts) {
+        return (DemandDrivenResult) runCSPTA("demand-driven:true;" + opts);
+    }
+
+    private static PointerAnalysisResult runCSPTA(String opts) {
+        Main.main(new String[]{"-pp", "-cp", DIR, "-m", MAIN, "-a",
+                CSPTA.ID + "=implicit-entries:false;only-app:true;" + opts});
+        return World.get().getResult(CSPTA.ID);
+    }
+
+    /**
+     * @return the points-to sets of the reference variables
+     * in the main method, keyed by variable names.
+     */
+    private static Map<String, Set<String>> getPointsToSets(
+            PointerAnalysisResult result) {
+        Map<String, Set<String>> pts = new TreeMap<>();
+        for (Var var : World.get().getMainMethod().getIR().getVars()) {
+            if (var.getType() instanceof ReferenceType) {
+                pts.put(var.getName(), result.getPointsToSet(var).stream()
+                        .map(Object::toString)
+                        .collect(Collectors.toSet()));
+            }
+        }
+        return pts;
+    }
+}
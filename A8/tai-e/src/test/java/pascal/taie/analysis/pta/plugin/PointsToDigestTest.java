@@ -0,0 +1,92 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.plugin;
+
+import org.junit.Test;
+import pascal.taie.Main;
+import pascal.taie.analysis.pta.cs.CSPTA;
+import pascal.taie.util.AnalysisException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class PointsToDigestTest {
+
+    private static final String DIR = "src/test/resources/pta/taint";
+
+    @Test
+    public void testCompareSame() throws IOException {
+        testCompareSame("SimpleTaint", "taint-config:" + DIR + "/taint-config.yml");
+        testCompareSame("TaintInList", "cs:2-obj;parallel-compare:true");
+    }
+
+    /**
+     * The keys of pointers are stable across runs, thus the digests
+     * dumped by a run match the result of another run.
+     */
+    private static void testCompareSame(String main, String opts) throws IOException {
+        Path digests = Files.createTempFile(main, ".digest");
+        try {
+            runCSPTA(main, opts + ";action:dump-digest;file:" + digests);
+            runCSPTA(main, opts + ";action:compare-digest;file:" + digests);
+        } finally {
+            Files.deleteIfExists(digests);
+        }
+    }
+
+    /**
+     * The pointers of 2-object-sensitive analysis are absent in
+     * the result of context-insensitive analysis (and vice versa),
+     * and all of them are reported by their names.
+     */
+    @Test
+    public void testCompareDifferent() throws IOException {
+        Path digests = Files.createTempFile("TaintInList", ".digest");
+        try {
+            runCSPTA("TaintInList", "cs:2-obj;action:dump-digest;file:" + digests);
+            runCSPTA("TaintInList", "cs:ci;action:compare-digest;file:" + digests);
+            fail("Expected mismatches");
+        } catch (AnalysisException e) {
+            String message = e.getMessage();
+            assertTrue(message, message.startsWith("Mismatches of points-to set"));
+            // missing pointers of the 2-object-sensitive result
+            assertTrue(message, message.contains("given: null"));
+            // pointers absent in the 2-object-sensitive result
+            assertTrue(message, message.contains("expected: null"));
+            // missing pointers are reported by names instead of hashes
+            assertFalse(message, message.contains("pointer of hash"));
+        } finally {
+            Files.deleteIfExists(digests);
+        }
+    }
+
+    private static void runCSPTA(String main, String opts) {
+        Main.main(new String[]{"-pp", "-cp", DIR, "-m", main, "-a",
+                CSPTA.ID + "=implicit-entries:false;only-app:true;" + opts});
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.plugin;
+
+import org.junit.Test;
+import pascal.taie.Main;
+import pascal.taie.analysis.pta.cs.CSPTA;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ResultProcessorTest {
+
+    private static final String DIR = "src/test/resources/pta/taint";
+
+    @Test
+    public void testStreamDumpTaint() throws IOException {
+        testStreamDump("SimpleTaint", "taint-config:" + DIR + "/taint-config.yml", ".txt");
+    }
+
+    @Test
+    public void testStreamDumpCS() throws IOException {
+        testStreamDump("TaintInList", "cs:2-obj", ".txt.gz");
+    }
+
+    /**
+     * "stream-dump" writes the same lines as "dump" in a different order
+     * within each section.
+     */
+    private static void testStreamDump(String main, String opts, String suffix)
+            throws IOException {
+        Path dump = Files.createTempFile(main, ".txt");
+        Path streamDump = Files.createTempFile(main, suffix);
+        try {
+            runCSPTA(main, opts + ";action:dump;file:" + dump);
+            runCSPTA(main, opts + ";action:stream-dump;file:" + streamDump);
+            List<String> expected = Files.readAllLines(dump);
+            List<String> given = readLines(streamDump);
+            assertTrue(expected.size() > 4);
+            assertEquals(getSectionHeaders(expected), getSectionHeaders(given));
+            assertEquals(expected.stream().sorted().toList(),
+                    given.stream().sorted().toList());
+        } finally {
+            Files.deleteIfExists(dump);
+            Files.deleteIfExists(streamDump);
+        }
+    }
+
+    private static void runCSPTA(String main, String opts) {
+        Main.main(new String[]{"-pp", "-cp", DIR, "-m", main, "-a",
+                CSPTA.ID + "=implicit-entries:false;only-app:true;" + opts});
+    }
+
+    private static List<String> readLines(Path file) throws IOException {
+        if (!file.toString().endsWith(".gz")) {
+            return Files.readAllLines(file);
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(file)),
+                StandardCharsets.UTF_8))) {
+            return reader.lines().toList();
+        }
+    }
+
+    private static List<String> getSectionHeaders(List<String> lines) {
+        return lines.stream()
+                .filter(line -> line.startsWith("Points-to sets of all ") ||
+                        line.startsWith("Detected ") ||
+                        line.startsWith("Rule pack "))
+                .toList();
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.plugin.taint;
+
+import org.junit.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.config.ConfigException;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class MethodPatternTest {
+
+    private static final String DIR = "src/test/resources/pta/taint";
+
+    private static final String SINK1 = "<SourceSink: void sink(java.lang.String)>";
+
+    private static final String SINK2 = "<SourceSink: void sink(java.lang.String,int)>";
+
+    private static final String SINK3 = "<SourceSink: void sink(java.lang.String,java.lang.String)>";
+
+    @Test
+    public void testExactSignature() {
+        assertFalse(MethodPattern.parse(SINK1).isPattern());
+        assertEquals(Set.of(SINK1), resolve(SINK1));
+        assertEquals(Set.of(), resolve("<SourceSink: void absent()>"));
+    }
+
+    @Test
+    public void testClassWildcard() {
+        String pattern = "<Source*: java.lang.String source()>";
+        assertTrue(MethodPattern.parse(pattern).isPattern());
+        assertEquals(Set.of("<SourceSink: java.lang.String source()>"),
+                resolve(pattern));
+    }
+
+    @Test
+    public void testMethodNameWildcard() {
+        assertEquals(Set.of(
+                "<SourceSink: java.lang.String source()>",
+                "<SourceSink: java.lang.String sourceAndSink(java.lang.String,java.lang.String)>"),
+                resolve("<SourceSink: java.lang.String source*(..)>"));
+    }
+
+    @Test
+    public void testSubtypes() {
+        String object = "<java.lang.Object: java.lang.String toString()>";
+        String string = "<java.lang.String: java.lang.String toString()>";
+        Set<String> methods = resolve("<java.lang.Object+: java.lang.String toString()>");
+        assertTrue(methods.toString(), methods.contains(object));
+        assertTrue(methods.toString(), methods.contains(string));
+        assertEquals(Set.of(object), resolve(object));
+    }
+
+    @Test
+    public void testAnyType() {
+        assertEquals(Set.of(SINK2, SINK3),
+                resolve("<SourceSink: void sink(java.lang.String,*)>"));
+        assertEquals(Set.of(SINK1),
+                resolve("<SourceSink: * sink(java.lang.String)>"));
+    }
+
+    @Test
+    public void testAnyParams() {
+        assertTrue(MethodPattern.parse("<SourceSink: void sink(..)>").isPattern());
+        assertEquals(Set.of(SINK1, SINK2, SINK3),
+                resolve("<SourceSink: void sink(..)>"));
+    }
+
+    @Test
+    public void testMalformed() {
+        for (String signature : new String[]{
+                "SourceSink: void sink(java.lang.String)",
+                "<SourceSink void sink(java.lang.String)>",
+                "<SourceSink: sink>",
+                "<SourceSink: void sink(java.lang.String>",
+                "<SourceSink: void sink)java.lang.String(>",
+        }) {
+            try {
+                MethodPattern.parse(signature);
+                fail("Expected ConfigException for " + signature);
+            } catch (ConfigException e) {
+                assertTrue(e.getMessage(), e.getMessage().contains(signature));
+            }
+        }
+    }
+
+    private static Set<String> resolve(String pattern) {
+        Main.buildWorld("-pp", "-cp", DIR, "-m", "SimpleTaint");
+        ClassHierarchy hierarchy = World.get().getClassHierarchy();
+        return MethodPattern.parse(pattern).resolve(hierarchy)
+                .stream()
+                .map(JMethod::getSignature)
+                .collect(Collectors.toSet());
+    }
+}
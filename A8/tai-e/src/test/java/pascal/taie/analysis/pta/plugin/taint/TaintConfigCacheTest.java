@@ -0,0 +1,148 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.plugin.taint;
+
+import org.junit.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TaintConfigCacheTest {
+
+    private static final String DIR = "src/test/resources/pta/taint";
+
+    private static final FileTime OLD_TIME = FileTime.fromMillis(0);
+
+    /**
+     * The cache file is reused, i.e., not rewritten, in the same world.
+     */
+    @Test
+    public void testCacheHit() throws IOException {
+        Path cacheDir = Files.createTempDirectory("taint-config-cache");
+        try {
+            Main.buildWorld("-pp", "-cp", DIR, "-m", "SimpleTaint");
+            String path = DIR + "/taint-config.yml";
+            TaintConfig expected = readConfig(path, cacheDir);
+            Path cacheFile = getCacheFile(cacheDir);
+            Files.setLastModifiedTime(cacheFile, OLD_TIME);
+            assertSameConfig(expected, readConfig(path, cacheDir));
+            assertEquals(OLD_TIME, Files.getLastModifiedTime(cacheFile));
+            assertEquals(List.of(cacheFile), listFiles(cacheDir));
+        } finally {
+            delete(cacheDir);
+        }
+    }
+
+    /**
+     * The cache file of a config is rewritten for a different world.
+     */
+    @Test
+    public void testWorldChanged() throws IOException {
+        Path cacheDir = Files.createTempDirectory("taint-config-cache");
+        try {
+            String path = DIR + "/taint-config.yml";
+            Main.buildWorld("-pp", "-cp", DIR, "-m", "SimpleTaint");
+            readConfig(path, cacheDir);
+            Path cacheFile = getCacheFile(cacheDir);
+            Files.setLastModifiedTime(cacheFile, OLD_TIME);
+            Main.buildWorld("-pp", "-cp", DIR, "-m", "ArgToResult");
+            TaintConfig config = readConfig(path, cacheDir);
+            assertTrue(Files.getLastModifiedTime(cacheFile).compareTo(OLD_TIME) > 0);
+            assertEquals(List.of(cacheFile), listFiles(cacheDir));
+            assertSameConfig(TaintConfig.readConfig(path,
+                    World.get().getClassHierarchy(),
+                    World.get().getTypeSystem()), config);
+        } finally {
+            delete(cacheDir);
+        }
+    }
+
+    /**
+     * A changed config file is parsed again, and cached in a new file.
+     */
+    @Test
+    public void testConfigChanged() throws IOException {
+        Path cacheDir = Files.createTempDirectory("taint-config-cache");
+        Path configFile = Files.createTempFile("taint-config", ".yml");
+        try {
+            Main.buildWorld("-pp", "-cp", DIR, "-m", "SimpleTaint");
+            Files.copy(Path.of(DIR, "taint-config.yml"), configFile,
+                    StandardCopyOption.REPLACE_EXISTING);
+            String path = configFile.toString();
+            assertEquals(4, readConfig(path, cacheDir).getSinks().size());
+            Files.copy(Path.of(DIR, "pack-a.yml"), configFile,
+                    StandardCopyOption.REPLACE_EXISTING);
+            TaintConfig config = readConfig(path, cacheDir);
+            assertEquals(1, config.getSources().size());
+            assertEquals(1, config.getSinks().size());
+            assertEquals(2, listFiles(cacheDir).size());
+        } finally {
+            delete(cacheDir);
+            Files.deleteIfExists(configFile);
+        }
+    }
+
+    private static TaintConfig readConfig(String path, Path cacheDir) {
+        return TaintConfigCache.readConfig(path, cacheDir,
+                World.get().getOptions(),
+                World.get().getClassHierarchy(),
+                World.get().getTypeSystem());
+    }
+
+    private static void assertSameConfig(TaintConfig expected, TaintConfig given) {
+        assertEquals(expected.getSources(), given.getSources());
+        assertEquals(expected.getSinks(), given.getSinks());
+        assertEquals(expected.getTransfers(), given.getTransfers());
+    }
+
+    private static Path getCacheFile(Path cacheDir) throws IOException {
+        List<Path> files = listFiles(cacheDir);
+        assertEquals(1, files.size());
+        return files.get(0);
+    }
+
+    private static List<Path> listFiles(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.sorted().toList();
+        }
+    }
+
+    private static void delete(Path dir) throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.plugin.taint;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.analysis.graph.callgraph.CallGraphs;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.cs.CSPTA;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TaintFlowStreamTest {
+
+    /**
+     * Rule id which needs escaping in JSON.
+     */
+    private static final String RULE = "rule \"1\"\\\n";
+
+    @Test
+    public void testJsonLines() throws IOException {
+        List<TaintFlow> taintFlows = getTaintFlows();
+        Path output = Files.createTempFile("taint-flows", ".jsonl");
+        try {
+            writeFlows(output, taintFlows);
+            List<String> lines = Files.readAllLines(output);
+            assertEquals(taintFlows.size(), lines.size());
+            ObjectMapper mapper = new ObjectMapper();
+            for (int i = 0; i < lines.size(); ++i) {
+                TaintFlow taintFlow = taintFlows.get(i);
+                JsonNode node = mapper.readTree(lines.get(i));
+                assertEquals(RULE, node.get("rule").asText());
+                assertEquals(CallGraphs.toString(taintFlow.sourceCall()),
+                        node.get("source").asText());
+                assertEquals(CallGraphs.toString(taintFlow.sinkCall()),
+                        node.get("sink").asText());
+                assertEquals(taintFlow.index(), node.get("index").asInt());
+            }
+        } finally {
+            Files.deleteIfExists(output);
+        }
+    }
+
+    @Test
+    public void testSarif() throws IOException {
+        List<TaintFlow> taintFlows = getTaintFlows();
+        Path output = Files.createTempFile("taint-flows", ".sarif");
+        try {
+            writeFlows(output, taintFlows);
+            JsonNode log = new ObjectMapper().readTree(output.toFile());
+            assertEquals("2.1.0", log.get("version").asText());
+            JsonNode run = log.get("runs").get(0);
+            assertEquals("Tai-e", run.get("tool").get("driver").get("name").asText());
+            JsonNode results = run.get("results");
+            assertEquals(taintFlows.size(), results.size());
+            for (int i = 0; i < results.size(); ++i) {
+                TaintFlow taintFlow = taintFlows.get(i);
+                JsonNode result = results.get(i);
+                assertEquals(RULE, result.get("ruleId").asText());
+                assertEquals(taintFlow.toString(),
+                        result.get("message").get("text").asText());
+                assertEquals(taintFlow.sinkCall().getContainer().getSignature(),
+                        result.get("locations").get(0).get("logicalLocations")
+                                .get(0).get("fullyQualifiedName").asText());
+                assertEquals(taintFlow.sinkCall().getLineNumber(),
+                        result.get("properties").get("sinkLine").asInt());
+            }
+        } finally {
+            Files.deleteIfExists(output);
+        }
+    }
+
+    /**
+     * A flow reported several times is written once, while the same flow
+     * of different rule packs is written for each rule pack.
+     */
+    @Test
+    public void testDeduplication() throws IOException {
+        List<TaintFlow> taintFlows = getTaintFlows();
+        Path output = Files.createTempFile("taint-flows", ".jsonl");
+        try (TaintFlowStream stream = new TaintFlowStream(output)) {
+            for (int i = 0; i < 3; ++i) {
+                taintFlows.forEach(flow -> stream.report(RULE, flow));
+            }
+            stream.report("other", taintFlows.get(0));
+        }
+        try {
+            assertEquals(taintFlows.size() + 1, Files.readAllLines(output).size());
+        } finally {
+            Files.deleteIfExists(output);
+        }
+    }
+
+    private static void writeFlows(Path output, List<TaintFlow> taintFlows) {
+        try (TaintFlowStream stream = new TaintFlowStream(output)) {
+            taintFlows.forEach(flow -> stream.report(RULE, flow));
+        }
+    }
+
+    private static List<TaintFlow> getTaintFlows() {
+        Main.main(new String[]{"-pp", "-cp", "src/test/resources/pta/taint",
+                "-m", "SimpleTaint", "-a", CSPTA.ID +
+                "=implicit-entries:false;only-app:true;" +
+                "taint-config:src/test/resources/pta/taint/taint-config.yml"});
+        PointerAnalysisResult result = World.get().getResult(CSPTA.ID);
+        Set<TaintFlow> taintFlows = result.getResult(TaintAnalysiss.class.getName());
+        assertTrue(taintFlows.size() > 1);
+        return new ArrayList<>(taintFlows);
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.snapshot;
+
+import org.junit.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.core.cs.element.CSVar;
+import pascal.taie.analysis.pta.core.heap.AllocationSiteBasedModel;
+import pascal.taie.analysis.pta.core.heap.MockObj;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.analysis.pta.cs.CSPTA;
+import pascal.taie.config.AnalysisOptions;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.util.AnalysisException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class PointerAnalysisSnapshotTest {
+
+    private static final String DIR = "src/test/resources/pta/taint";
+
+    /**
+     * The result of taint analysis contains taint objects, i.e., mock
+     * objects, which must be equal to the original ones after reloading.
+     */
+    @Test
+    public void testSaveAndLoadTaint() throws IOException {
+        testSaveAndLoad("SimpleTaint", "taint-config:" + DIR + "/taint-config.yml");
+    }
+
+    @Test
+    public void testSaveAndLoadCS() throws IOException {
+        testSaveAndLoad("TaintInList", "cs:2-obj");
+    }
+
+    @Test
+    public void testLoadInDifferentWorld() throws IOException {
+        Path snapshot = Files.createTempFile("SimpleTaint", ".snapshot");
+        try {
+            Main.main(new String[]{"-pp", "-cp", DIR, "-m", "SimpleTaint", "-a",
+                    CSPTA.ID + "=implicit-entries:false;only-app:true;" +
+                            "save-snapshot:" + snapshot});
+            // the main class is a part of the world
+            Main.buildWorld("-pp", "-cp", DIR, "-m", "ArgToResult");
+            PointerAnalysisSnapshot.load(snapshot,
+                    new AllocationSiteBasedModel(makeOptions()));
+            fail("Expected AnalysisException");
+        } catch (AnalysisException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("different world"));
+        } finally {
+            Files.deleteIfExists(snapshot);
+        }
+    }
+
+    private static void testSaveAndLoad(String main, String opts) throws IOException {
+        Path snapshot = Files.createTempFile(main, ".snapshot");
+        try {
+            Main.main(new String[]{"-pp", "-cp", DIR, "-m", main, "-a",
+                    CSPTA.ID + "=implicit-entries:false;only-app:true;" +
+                            opts + ";save-snapshot:" + snapshot});
+            PointerAnalysisResult saved = World.get().getResult(CSPTA.ID);
+            PointerAnalysisResult loaded = PointerAnalysisSnapshot.load(
+                    snapshot, new AllocationSiteBasedModel(makeOptions()));
+            assertEquals(toStrings(saved.getCallGraph().edges().toList()),
+                    toStrings(loaded.getCallGraph().edges().toList()));
+            Map<String, CSVar> loadedVars = loaded.getCSVars().stream()
+                    .collect(Collectors.toMap(CSVar::toString, v -> v));
+            assertEquals(toStrings(saved.getCSVars()), loadedVars.keySet());
+            for (CSVar csVar : saved.getCSVars()) {
+                assertEquals(csVar.toString(),
+                        toStrings(saved.getPointsToSet(csVar)),
+                        toStrings(loaded.getPointsToSet(loadedVars.get(csVar.toString()))));
+            }
+            // mock objects (e.g., taint objects) are not created by
+            // the heap model, and they are restored as equal objects
+            for (Var var : saved.getVars()) {
+                for (Obj obj : saved.getPointsToSet(var)) {
+                    if (obj instanceof MockObj) {
+                        assertTrue(var + " -> " + obj,
+                                loaded.getPointsToSet(var).contains(obj));
+                    }
+                }
+            }
+        } finally {
+            Files.deleteIfExists(snapshot);
+        }
+    }
+
+    private static AnalysisOptions makeOptions() {
+        return new AnalysisOptions(Map.of(
+                "merge-string-constants", false,
+                "merge-string-objects", false,
+                "merge-string-builders", false,
+                "merge-exception-objects", true));
+    }
+
+    private static Set<String> toStrings(Collection<?> elements) {
+        return elements.stream()
+                .map(Object::toString)
+                .collect(Collectors.toSet());
+    }
+}
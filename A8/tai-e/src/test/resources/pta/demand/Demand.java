@@ -0,0 +1,40 @@
+class Demand {
+
+    public static void main(String[] args) {
+        A a1 = new A();
+        A a2 = new A();
+        B b1 = new B();
+        a1.f = b1;
+        A alias = a1;
+        B b2 = alias.f;
+        B b3 = id(b2);
+        B b4 = a1.get();
+        B b5 = a2.get();
+        Object[] arr = new Object[1];
+        arr[0] = b3;
+        Object o = arr[0];
+        Holder.s = a2;
+        A s = Holder.s;
+    }
+
+    static B id(B b) {
+        return b;
+    }
+}
+
+class A {
+
+    B f;
+
+    B get() {
+        return this.f;
+    }
+}
+
+class B {
+}
+
+class Holder {
+
+    static A s;
+}
@@ -0,0 +1,22 @@
+class Incremental {
+
+    public static void main(String[] args) {
+        a();
+    }
+
+    static void a() {
+        Object o = b();
+    }
+
+    static Object b() {
+        return new Object();
+    }
+
+    static void c() {
+        Object o = b();
+    }
+
+    static void unused() {
+        c();
+    }
+}
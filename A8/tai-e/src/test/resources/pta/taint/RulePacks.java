@@ -0,0 +1,13 @@
+class RulePacks {
+
+    public static void main(String[] args) {
+        String a = SourceSink.source();
+        String b = SourceSink.sourceAndSink("x", "y");
+
+        SourceSink.sink(a, 0); // taint of pack-a
+        SourceSink.sink(b); // taint of pack-b
+
+        SourceSink.sink(b, 0); // no taint
+        SourceSink.sink(a); // no taint
+    }
+}
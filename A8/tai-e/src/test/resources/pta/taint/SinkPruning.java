@@ -0,0 +1,17 @@
+class SinkPruning {
+
+    public static void main(String[] args) {
+        leak();
+        unrelated();
+    }
+
+    static void leak() {
+        String s = SourceSink.source();
+        SourceSink.sink(s); // taint
+    }
+
+    static void unrelated() {
+        String s = SourceSink.source(); // pruned
+        String t = s;
+    }
+}
@@ -0,0 +1,11 @@
+class SourceWrapper {
+
+    public static void main(String[] args) {
+        String s = get();
+        SourceSink.sink(s); // taint
+    }
+
+    static String get() {
+        return SourceSink.source();
+    }
+}